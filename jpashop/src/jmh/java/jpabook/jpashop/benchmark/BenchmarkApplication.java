@@ -0,0 +1,101 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.JpashopApplication;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트
+ * - 메모리 H2 DB를 사용하고, SQL 로그 / p6spy 로그를 끈 상태로 실행한다.
+ * - 커맨드라인 인자로 넘겨야 application.yml 설정보다 우선 적용된다.
+ */
+public class BenchmarkApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final EntityManagerFactory emf;
+
+    private BenchmarkApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.emf = context.getBean(EntityManagerFactory.class);
+    }
+
+    public static BenchmarkApplication start(String databaseName, String... extraArgs) {
+        return run(WebApplicationType.NONE, databaseName, extraArgs);
+    }
+
+    /**
+     * 내장 톰캣까지 띄운다. (빈 포트를 사용하므로 port()로 확인)
+     */
+    public static BenchmarkApplication startWeb(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(Arrays.asList(extraArgs));
+        args.add("--server.port=0");
+        return run(WebApplicationType.SERVLET, databaseName, args.toArray(new String[0]));
+    }
+
+    private static BenchmarkApplication run(WebApplicationType webApplicationType, String databaseName, String... extraArgs) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.open-in-view=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=off",
+                "--logging.level.org.hibernate.orm.jdbc.bind=off"
+        ));
+        args.addAll(Arrays.asList(extraArgs));
+
+        SpringApplication application = new SpringApplication(JpashopApplication.class);
+        application.setWebApplicationType(webApplicationType);
+        return new BenchmarkApplication(application.run(args.toArray(new String[0])));
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public Statistics statistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * OSIV(OpenEntityManagerInView)와 동일하게 요청 단위로 EntityManager를 열어 둔 상태로 실행한다.
+     * 트랜잭션 밖에서도 지연 로딩이 가능해야 v1, v2 경로를 실제 요청과 같은 조건으로 측정할 수 있다.
+     */
+    public <T> T inRequestScope(Supplier<T> action) {
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            return action.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,83 @@
+package jpabook.jpashop.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 주문 데이터 적재
+ * 수백만 건을 EntityManager.persist로 넣으면 적재 자체가 측정보다 오래 걸리므로 JDBC batch insert를 사용한다.
+ * InitDb가 넣는 데이터와 PK가 겹치지 않도록 ID_OFFSET 이후의 값을 사용한다.
+ */
+public final class BenchmarkData {
+
+    static final long ID_OFFSET = 10_000_000L;
+    private static final int BATCH_SIZE = 1_000;
+
+    private BenchmarkData() {
+    }
+
+    public static void seedOrders(JdbcTemplate jdbcTemplate, int orderCount) {
+        seedOrders(jdbcTemplate, orderCount, Math.max(1, Math.min(orderCount / 10, 100_000)));
+    }
+
+    /**
+     * 회원 이름은 "member" + 순번이고, 주문은 회원에게 순서대로 돌아가며 배정한다.
+     */
+    public static void seedOrders(JdbcTemplate jdbcTemplate, int orderCount, int memberCount) {
+        int itemCount = 100;
+
+        String memberSql = "insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)";
+        List<Object[]> members = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < memberCount; i++) {
+            members.add(new Object[]{ID_OFFSET + i, "member" + i, "서울", "street" + i, "12345"});
+            if (members.size() == BATCH_SIZE) {
+                flush(jdbcTemplate, members, memberSql);
+            }
+        }
+        flush(jdbcTemplate, members, memberSql);
+
+        List<Object[]> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new Object[]{"B", ID_OFFSET + i, "book" + i, 10000 + i, Integer.MAX_VALUE, 0L, "author" + i, "isbn" + i});
+        }
+        flush(jdbcTemplate, items,
+                "insert into item (dtype, item_id, name, price, stock_quantity, version, author, isbn) values (?, ?, ?, ?, ?, ?, ?, ?)");
+
+        String deliverySql = "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)";
+        String orderSql = "insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)";
+        String orderItemSql = "insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)";
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> deliveries = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> orders = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> orderItems = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < orderCount; i++) {
+            long id = ID_OFFSET + i;
+            deliveries.add(new Object[]{id, "서울", "street" + i, "12345", "READY"});
+            orders.add(new Object[]{id, ID_OFFSET + (i % memberCount), id, now, "ORDER"});
+            orderItems.add(new Object[]{id, ID_OFFSET + (i % itemCount), id, 10000, 1});
+
+            if (orders.size() == BATCH_SIZE) {
+                // FK 순서를 지키기 위해 delivery -> orders -> order_item 순으로 반영
+                flush(jdbcTemplate, deliveries, deliverySql);
+                flush(jdbcTemplate, orders, orderSql);
+                flush(jdbcTemplate, orderItems, orderItemSql);
+            }
+        }
+        flush(jdbcTemplate, deliveries, deliverySql);
+        flush(jdbcTemplate, orders, orderSql);
+        flush(jdbcTemplate, orderItems, orderItemSql);
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> rows, String sql) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+        rows.clear();
+    }
+}
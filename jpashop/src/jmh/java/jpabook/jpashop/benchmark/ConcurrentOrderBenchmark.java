@@ -0,0 +1,70 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 주문 처리량 (OrderService.order, 조건부 UPDATE로 재고 차감)
+ * 16개 스레드가 동시에 주문한다. (OrderServiceConcurrencyTest는 초과 판매 여부만 확인)
+ * - itemCount = 1 : 모든 주문이 같은 상품 row를 UPDATE (row 락 경합)
+ * - itemCount = 100 : 주문이 여러 상품으로 나뉨 (경합 거의 없음)
+ *
+ * 측정 중 재고가 떨어지지 않도록 재고를 충분히 넣어 둔다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class ConcurrentOrderBenchmark {
+
+    private static final int STOCK_QUANTITY = 1_000_000_000;
+
+    @Param({"1", "100"})
+    public int itemCount;
+
+    private BenchmarkApplication app;
+    private OrderService orderService;
+    private Long memberId;
+    private Long[] itemIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchmarkApplication.start("concurrent-order-" + itemCount);
+        orderService = app.getBean(OrderService.class);
+
+        Member member = new Member();
+        member.setName("benchmark-member");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberId = app.getBean(MemberService.class).join(member);
+
+        ItemService itemService = app.getBean(ItemService.class);
+        itemIds = new Long[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            Book book = new Book();
+            book.setName("benchmark-item-" + i);
+            book.setPrice(10000);
+            book.setStockQuantity(STOCK_QUANTITY);
+            itemService.saveItem(book);
+            itemIds[i] = book.getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    public Long order() {
+        Long itemId = itemIds[ThreadLocalRandom.current().nextInt(itemCount)];
+        return orderService.order(memberId, itemId, 1);
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * id 발급 방식에 따른 insert 처리량 비교
+ * - none : insert마다 시퀀스를 조회 (블록 할당 이전 방식과 같은 DB 왕복 수)
+ * - pooled : 시퀀스 값을 구간의 끝으로 사용 (하이버네이트 기본값)
+ * - pooled-lo : 시퀀스 값을 구간의 시작으로 사용 (IdBlock, application.yml 설정)
+ *
+ * 한 번의 호출(op)에서 회원 1000명을 하나의 트랜잭션으로 저장한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EntityInsertBenchmark {
+
+    private static final int MEMBERS_PER_OP = 1000;
+
+    @Param({"none", "pooled", "pooled-lo"})
+    public String idOptimizer;
+
+    private BenchmarkApplication app;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager em;
+    private Statistics statistics;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchmarkApplication.start("entity-insert-" + idOptimizer,
+                "--spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=" + idOptimizer,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=100",
+                "--spring.jpa.properties.hibernate.order_inserts=true");
+        transactionTemplate = app.getBean(TransactionTemplate.class);
+        em = app.getBean(EntityManager.class);
+        statistics = app.statistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long insertedRows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS_PER_OP)
+    public void insertMembers(SqlCounter counter) {
+        long before = statistics.getPrepareStatementCount();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < MEMBERS_PER_OP; i++) {
+                Member member = new Member();
+                member.setName("member-" + sequence++);
+                member.setAddress(new Address("서울", "강가", "123-123"));
+                em.persist(member);
+            }
+            em.flush();
+            em.clear();
+        });
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.insertedRows += MEMBERS_PER_OP;
+    }
+}
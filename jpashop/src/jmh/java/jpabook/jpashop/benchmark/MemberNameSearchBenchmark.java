@@ -0,0 +1,73 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.MemberNameIndex;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 이름으로 주문 검색 (/orders) 비교
+ * - memberNameIndex=false : m.name like '%x%' (orders x member 전체 읽기)
+ * - memberNameIndex=true  : trigram 색인으로 회원 id를 찾고 o.member_id in (...)
+ *
+ * 회원 100만 명, 주문 100만 건 (회원마다 주문 1건)
+ * - member12345 : 11명 (member12345, member123450 ~ member123459)
+ * - ember99999  : 1명
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberNameSearchBenchmark {
+
+    private static final int MEMBER_COUNT = 1_000_000;
+
+    @Param({"false", "true"})
+    public boolean memberNameIndex;
+
+    @Param({"member12345", "ember99999"})
+    public String keyword;
+
+    private BenchmarkApplication app;
+    private OrderService orderService;
+    private Statistics statistics;
+    private OrderSearch orderSearch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchmarkApplication.start("member-name-search-" + memberNameIndex,
+                "--jpashop.member-name-index.enabled=" + memberNameIndex);
+        BenchmarkData.seedOrders(app.getBean(JdbcTemplate.class), MEMBER_COUNT, MEMBER_COUNT);
+        // 시작 시점에는 데이터가 없었으므로 적재 후 다시 읽는다.
+        app.getBean(MemberNameIndex.class).load();
+
+        orderService = app.getBean(OrderService.class);
+        statistics = app.statistics();
+        orderSearch = new OrderSearch();
+        orderSearch.setMemberName(keyword);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long invocations;
+    }
+
+    @Benchmark
+    public void findOrdersByMemberName(SqlCounter counter, Blackhole bh) {
+        long before = statistics.getPrepareStatementCount();
+        bh.consume(app.inRequestScope(() -> orderService.findOrders(orderSearch, null, 50)));
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.invocations++;
+    }
+}
@@ -0,0 +1,71 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 검색 페이지 조회 처리량 (OrderRepository.findPage, 시작 시 등록한 이름 있는 쿼리)
+ * - firstPage : 첫 페이지
+ * - nextPage : 검색 결과 중간의 주문 다음부터 (keyset 조건이 붙은 쿼리)
+ * 여러 스레드로 실행해서 검색 QPS가 높을 때의 CPU 사용량을 확인한다. (gc 프로파일러로 할당량도 함께 확인)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class OrderSearchQueryBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"none", "status", "name", "status-name"})
+    public String condition;
+
+    private BenchmarkApplication app;
+    private OrderRepository orderRepository;
+    private OrderSearch orderSearch;
+    private OrderCursor middle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchmarkApplication.start("order-search-query-" + condition);
+        BenchmarkData.seedOrders(app.getBean(JdbcTemplate.class), 1000);
+        orderRepository = app.getBean(OrderRepository.class);
+
+        orderSearch = new OrderSearch();
+        if (condition.contains("status")) {
+            orderSearch.setOrderStatus(OrderStatus.ORDER);
+        }
+        // member0 ~ member99 중 member42 한 명 (condition=none, status는 최대 1000건)
+        if (condition.contains("name")) {
+            orderSearch.setMemberName("member42");
+        }
+
+        // 결과가 한 페이지보다 적은 조건도 있으므로 다음 페이지 위치는 검색 결과의 가운데 주문으로 잡는다.
+        List<Order> orders = app.inRequestScope(() -> orderRepository.findPage(orderSearch, null, null, 1000).getOrders());
+        middle = OrderCursor.of(orders.get(orders.size() / 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole bh) {
+        bh.consume(app.inRequestScope(() -> orderRepository.findPage(orderSearch, null, null, PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public void nextPage(Blackhole bh) {
+        bh.consume(app.inRequestScope(() -> orderRepository.findPage(orderSearch, null, middle, PAGE_SIZE)));
+    }
+}
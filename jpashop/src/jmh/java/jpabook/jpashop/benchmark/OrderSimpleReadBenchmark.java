@@ -0,0 +1,84 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.api.OrderSimpleApiController;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 간단한 주문 조회(XToOne) v1 ~ v4 경로 비교
+ * - Throughput : 초당 처리량
+ * - SampleTime : p99 등 지연시간 분포
+ * - gc 프로파일러 : 할당률 (build.gradle의 jmh 설정)
+ * - statements / invocations : 한 번 호출할 때 실행되는 SQL 수 (hibernate statistics)
+ *
+ * v1, v2는 최신 주문 첫 페이지(1000건)만, v3, v4는 전체 주문을 조회한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderSimpleReadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int orderCount;
+
+    private BenchmarkApplication app;
+    private OrderSimpleApiController controller;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchmarkApplication.start("order-simple-read-" + orderCount);
+        BenchmarkData.seedOrders(app.getBean(JdbcTemplate.class), orderCount);
+        controller = app.getBean(OrderSimpleApiController.class);
+        statistics = app.statistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long invocations;
+    }
+
+    @Benchmark
+    public void v1Entity(SqlCounter counter, Blackhole bh) {
+        long before = statistics.getPrepareStatementCount();
+        bh.consume(app.inRequestScope(controller::ordersV1));
+        record(counter, before);
+    }
+
+    @Benchmark
+    public void v2LazyDto(SqlCounter counter, Blackhole bh) {
+        long before = statistics.getPrepareStatementCount();
+        bh.consume(app.inRequestScope(() -> controller.orderV2(null, 1000)));
+        record(counter, before);
+    }
+
+    @Benchmark
+    public void v3FetchJoin(SqlCounter counter, Blackhole bh) {
+        long before = statistics.getPrepareStatementCount();
+        bh.consume(app.inRequestScope(controller::orderV3));
+        record(counter, before);
+    }
+
+    @Benchmark
+    public void v4QueryDto(SqlCounter counter, Blackhole bh) {
+        long before = statistics.getPrepareStatementCount();
+        bh.consume(app.inRequestScope(controller::orderV4));
+        record(counter, before);
+    }
+
+    private void record(SqlCounter counter, long before) {
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.invocations++;
+    }
+}
@@ -0,0 +1,94 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.MemberService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 목록 조회 시 변경 감지 스냅샷 비용 비교 (gc 프로파일러의 gc.alloc.rate.norm으로 호출당 할당량 확인)
+ * - managed : 힌트 없이 조회 (엔티티마다 필드 값 복사본을 스냅샷으로 보관)
+ * - readOnly : 읽기 전용 힌트로 조회 (OrderRepository.findAllWithMemberDelivery, MemberRepository.findAll)
+ * - readOnlyTransaction : @Transactional(readOnly = true) 서비스 (세션 기본값이 읽기 전용, FlushMode.MANUAL)
+ *
+ * 모두 api/v3/simple-orders, api/v2/members와 같이 OSIV 상태(inRequestScope)에서 호출한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadOnlyListingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int orderCount;
+
+    private BenchmarkApplication app;
+    private EntityManagerFactory emf;
+    private OrderRepository orderRepository;
+    private MemberRepository memberRepository;
+    private MemberService memberService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchmarkApplication.start("read-only-listing-" + orderCount);
+        // 회원은 주문 수의 1/10
+        BenchmarkData.seedOrders(app.getBean(JdbcTemplate.class), orderCount, orderCount / 10);
+        emf = app.getBean(EntityManagerFactory.class);
+        orderRepository = app.getBean(OrderRepository.class);
+        memberRepository = app.getBean(MemberRepository.class);
+        memberService = app.getBean(MemberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    public void ordersManaged(Blackhole bh) {
+        bh.consume(app.inRequestScope(() -> currentEntityManager().createQuery(
+                "select o from Order o" +
+                        " join fetch o.member m" +
+                        " join fetch o.delivery d", Order.class)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public void ordersReadOnly(Blackhole bh) {
+        bh.consume(app.inRequestScope(orderRepository::findAllWithMemberDelivery));
+    }
+
+    @Benchmark
+    public void membersManaged(Blackhole bh) {
+        bh.consume(app.inRequestScope(() -> currentEntityManager()
+                .createQuery("select m from Member m", Member.class)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public void membersReadOnly(Blackhole bh) {
+        bh.consume(app.inRequestScope(memberRepository::findAll));
+    }
+
+    @Benchmark
+    public void membersReadOnlyTransaction(Blackhole bh) {
+        bh.consume(app.inRequestScope(memberService::findMembers));
+    }
+
+    // inRequestScope가 열어 둔 EntityManager
+    private EntityManager currentEntityManager() {
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em == null) {
+            throw new IllegalStateException("요청 범위 EntityManager가 없습니다.");
+        }
+        return em;
+    }
+}
@@ -0,0 +1,82 @@
+package jpabook.jpashop.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 플랫폼 스레드(톰캣 스레드 풀) vs 가상 스레드(virtual 프로필) 요청 처리량 비교
+ * 톰캣 기본 스레드 수(200)보다 많은 동시 요청을 보낸다.
+ *
+ * 가상 스레드는 Java 21이 필요하다. : ./gradlew jmh -PjavaVersion=21 -Pjmh.includes=RequestThreadBenchmark
+ * Java 17에서 실행하면 virtual 프로필이어도 플랫폼 스레드로 동작한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(400)
+public class RequestThreadBenchmark {
+
+    private static final int ORDER_COUNT = 1000;
+    private static final int ITEM_COUNT = 100;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private BenchmarkApplication app;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchmarkApplication.startWeb("request-thread-" + threads,
+                "--spring.profiles.active=" + ("virtual".equals(threads) ? "virtual" : "default"),
+                "--spring.datasource.hikari.maximum-pool-size=50",  // 두 경우 모두 같은 커넥션 수로 비교
+                "--jpashop.query-guard.repeated-select-threshold=0");
+        BenchmarkData.seedOrders(app.getBean(JdbcTemplate.class), ORDER_COUNT);
+        baseUrl = "http://localhost:" + app.port();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    public int listMembers() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v2/members")).GET().build();
+        return send(request);
+    }
+
+    @Benchmark
+    public int placeOrder() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long memberId = BenchmarkData.ID_OFFSET + random.nextInt(ORDER_COUNT / 10);
+        long itemId = BenchmarkData.ID_OFFSET + random.nextInt(ITEM_COUNT);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/order"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("memberId=" + memberId + "&itemId=" + itemId + "&count=1"))
+                .build();
+        return send(request);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status >= 400) {
+            throw new IllegalStateException("unexpected status " + status + " for " + request.uri());
+        }
+        return status;
+    }
+}
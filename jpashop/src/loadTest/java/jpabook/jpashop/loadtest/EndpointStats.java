@@ -0,0 +1,69 @@
+package jpabook.jpashop.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔드포인트별 응답 시간 (마이크로초, HdrHistogram)과 오류 수
+ * 응답 시간은 실제 전송 시각이 아니라 예정된 전송 시각부터 잰다. (서버가 밀려 전송이 늦어진 시간까지 포함)
+ */
+public class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long latencyNanos, boolean error) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    public void add(EndpointStats other) {
+        latency.add(other.latency);
+        errors.add(other.errors.sum());
+    }
+
+    /**
+     * 리포트 항목 (빌드끼리 diff 할 수 있도록 항상 같은 순서로 출력)
+     * histogram : 압축한 전체 분포 (base64), HdrHistogram 도구로 다시 읽어 합치거나 비교할 때 사용
+     */
+    public Map<String, Object> toReport(double durationSeconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("count", latency.getTotalCount());
+        report.put("errors", errors.sum());
+        report.put("throughput", round(latency.getTotalCount() / durationSeconds));
+
+        Map<String, Object> latencyMillis = new LinkedHashMap<>();
+        latencyMillis.put("mean", millis(latency.getMean()));
+        latencyMillis.put("p50", millis(latency.getValueAtPercentile(50)));
+        latencyMillis.put("p90", millis(latency.getValueAtPercentile(90)));
+        latencyMillis.put("p99", millis(latency.getValueAtPercentile(99)));
+        latencyMillis.put("p99.9", millis(latency.getValueAtPercentile(99.9)));
+        latencyMillis.put("max", millis(latency.getMaxValue()));
+        report.put("latencyMillis", latencyMillis);
+
+        ByteBuffer buffer = ByteBuffer.allocate(latency.getNeededByteBufferCapacity());
+        int length = latency.encodeIntoCompressedByteBuffer(buffer);
+        report.put("histogram", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        return report;
+    }
+
+    private static double millis(double micros) {
+        return round(micros / 1000);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,174 @@
+package jpabook.jpashop.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.benchmark.BenchmarkApplication;
+import jpabook.jpashop.datagen.ZipfSampler;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP 부하 테스트 (./gradlew loadTest)
+ *
+ * 메모리 H2에 datagen 프로필로 데이터를 채운 앱을 띄우고, 읽기 / 쓰기 요청을 섞어 고정 도착률로 보낸다.
+ * - open model : 응답을 기다리지 않고 정해진 간격(1 / rate)마다 요청을 보낸다.
+ *   응답을 기다렸다가 다음 요청을 보내면(closed model) 서버가 느려질 때 요청도 덜 보내게 되어 지연이 가려진다. (coordinated omission)
+ * - 응답 시간은 예정된 전송 시각부터 재므로, 요청을 보내는 쪽이 밀린 시간도 포함된다.
+ * - warmup 동안의 결과는 버리고, 이후 duration 동안의 엔드포인트별 처리량 / 응답 시간 분포를 JSON 리포트로 남긴다.
+ *
+ * 설정 (시스템 프로퍼티, gradle에서는 -PloadTest.rate=500 처럼 전달)
+ * - loadTest.rate : 초당 요청 수 (기본 200)
+ * - loadTest.duration, loadTest.warmup : 측정 / 워밍업 시간(초) (기본 60, 15)
+ * - loadTest.members, loadTest.items, loadTest.orders : 생성할 데이터 수
+ * - loadTest.report : 리포트 파일 경로
+ */
+public class LoadTestRunner {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NEVER)  // POST /order의 redirect는 그대로 성공으로 본다.
+            .build();
+    private final URI baseUri;
+    private final List<Scenario> scenarios;
+    private final int totalWeight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadTestRunner(URI baseUri, List<Scenario> scenarios) {
+        this.baseUri = baseUri;
+        this.scenarios = scenarios;
+        this.totalWeight = scenarios.stream().mapToInt(Scenario::getWeight).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("loadTest.rate", 200);
+        int durationSeconds = Integer.getInteger("loadTest.duration", 60);
+        int warmupSeconds = Integer.getInteger("loadTest.warmup", 15);
+        int members = Integer.getInteger("loadTest.members", 10_000);
+        int items = Integer.getInteger("loadTest.items", 1_000);
+        int orders = Integer.getInteger("loadTest.orders", 100_000);
+        File reportFile = new File(System.getProperty("loadTest.report", "build/results/loadtest/report.json"));
+
+        try (BenchmarkApplication app = BenchmarkApplication.startWeb("loadtest",
+                "--spring.profiles.active=datagen",
+                "--spring.jpa.open-in-view=true",  // 주문 목록 화면은 뷰에서 지연 로딩한다. (앱 기본값과 동일)
+                "--jpashop.datagen.members=" + members,
+                "--jpashop.datagen.items=" + items,
+                "--jpashop.datagen.orders=" + orders)) {
+
+            LoadTestRunner runner = new LoadTestRunner(URI.create("http://localhost:" + app.port()),
+                    defaultScenarios(members, items));
+
+            runner.run(rate, warmupSeconds);  // 워밍업 결과는 버린다.
+            Map<String, EndpointStats> stats = runner.run(rate, durationSeconds);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("rate", rate);
+            report.put("durationSeconds", durationSeconds);
+            report.put("data", Map.of("members", members, "items", items, "orders", orders));
+            EndpointStats total = new EndpointStats();
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            stats.forEach((name, endpointStats) -> {
+                endpoints.put(name, endpointStats.toReport(durationSeconds));
+                total.add(endpointStats);
+            });
+            report.put("endpoints", endpoints);
+            report.put("total", total.toReport(durationSeconds));
+
+            reportFile.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+            System.out.println("load test report : " + reportFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * 읽기 (회원 목록, 주문 목록 API, 주문 검색 화면)와 쓰기 (주문)를 섞는다.
+     * 주문 상품은 datagen과 같은 Zipf 분포로 골라 인기 상품에 주문이 몰리게 한다.
+     */
+    static List<Scenario> defaultScenarios(int members, int items) {
+        ZipfSampler itemPopularity = new ZipfSampler(items, 1.0);
+        return List.of(
+                new Scenario("GET /api/v2/members", 10, base ->
+                        get(base.resolve("/api/v2/members"))),
+                new Scenario("GET /api/v3/simple-orders", 30, base ->
+                        get(base.resolve("/api/v3/simple-orders"))),
+                new Scenario("GET /orders", 30, base ->
+                        get(base.resolve("/orders?orderStatus=ORDER&memberName=member" + randomId(members)))),
+                new Scenario("POST /order", 30, base -> HttpRequest.newBuilder(base.resolve("/order"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "memberId=" + randomId(members) + "&itemId=" + itemPopularity.next() + "&count=1"))
+                        .build())
+        );
+    }
+
+    /**
+     * seconds 동안 초당 rate개의 요청을 정해진 간격으로 보내고, 보낸 요청이 모두 끝날 때까지 기다린다.
+     */
+    Map<String, EndpointStats> run(int rate, int seconds) throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        scenarios.forEach(scenario -> stats.put(scenario.getName(), new EndpointStats()));
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requestCount = (long) rate * seconds;
+        long started = System.nanoTime();
+        for (long i = 0; i < requestCount; i++) {
+            long intended = started + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // 늦었다면 기다리지 않고 바로 보낸다. (늦어진 시간은 응답 시간에 포함)
+            Scenario scenario = pick();
+            send(scenario.newRequest(baseUri), intended, stats.get(scenario.getName()));
+        }
+
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private void send(HttpRequest request, long intended, EndpointStats stats) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    stats.record(System.nanoTime() - intended, failure != null || response.statusCode() >= 400);
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private Scenario pick() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            value -= scenario.getWeight();
+            if (value < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private static HttpRequest get(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private static long randomId(int count) {
+        return ThreadLocalRandom.current().nextLong(count) + 1;
+    }
+}
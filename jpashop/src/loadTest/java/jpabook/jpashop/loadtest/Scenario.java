@@ -0,0 +1,35 @@
+package jpabook.jpashop.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.function.Function;
+
+/**
+ * 부하 테스트 시나리오 (엔드포인트 하나)
+ * weight : 전체 요청 중 이 시나리오가 차지하는 비율 (다른 시나리오와의 상대값)
+ */
+public class Scenario {
+
+    private final String name;
+    private final int weight;
+    private final Function<URI, HttpRequest> requestFactory;
+
+    public Scenario(String name, int weight, Function<URI, HttpRequest> requestFactory) {
+        this.name = name;
+        this.weight = weight;
+        this.requestFactory = requestFactory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    // 요청마다 새로 만든다. (회원, 상품 id 등 매번 다른 값 사용)
+    public HttpRequest newRequest(URI baseUri) {
+        return requestFactory.apply(baseUri);
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
  */
 
 @Component
+@Profile("!datagen")  // 대량 데이터 생성 시에는 DataGenerator가 대신 채운다.
 @RequiredArgsConstructor
 public class InitDb {
 
@@ -2,11 +2,13 @@ package jpabook.jpashop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /*
 @SpringBootApplication : 이 패키지와 하위 패키지를 모두 스프링의 컴포넌트 스캔을 하여 스프링 빈에 자동 등록
  */
 @SpringBootApplication
+@EnableScheduling  // HotStockLedger 등 주기 작업
 public class JpashopApplication {
 
 	public static void main(String[] args) {
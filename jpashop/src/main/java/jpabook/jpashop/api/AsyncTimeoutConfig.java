@@ -0,0 +1,35 @@
+package jpabook.jpashop.api;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 요청별 비동기 타임아웃
+ * StreamingResponseBody는 타임아웃을 직접 정할 수 없으므로, 핸들러가 요청 속성(TIMEOUT_ATTRIBUTE)에 넣은 값을
+ * 비동기 처리 시작 직전에 적용한다. 속성이 없는 요청은 기본 타임아웃(spring.mvc.async.request-timeout)을 그대로 사용한다.
+ */
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfig.class.getName() + ".timeoutMillis";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeoutMillis = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeoutMillis instanceof Long timeout && request instanceof AsyncWebRequest asyncWebRequest) {
+                    asyncWebRequest.setTimeout(timeout);
+                }
+            }
+        });
+    }
+}
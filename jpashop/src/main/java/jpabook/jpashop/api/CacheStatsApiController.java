@@ -0,0 +1,49 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitoring.CacheStatsService;
+import jpabook.jpashop.monitoring.CacheStatsService.QueryPlanStats;
+import jpabook.jpashop.monitoring.CacheStatsService.RegionStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsApiController {
+
+    private final CacheStatsService cacheStatsService;
+
+    // 2차 캐시 region별 hit / miss / put / eviction 수
+    @GetMapping("api/cache/stats")
+    public Result<List<RegionStats>> cacheStats() {
+        requireStatistics();
+        return new Result<>(cacheStatsService.findRegionStats());
+    }
+
+    // 쿼리 계획 캐시 hit / miss 수, 적중률
+    @GetMapping("api/cache/query-plan")
+    public Result<QueryPlanStats> queryPlanStats() {
+        requireStatistics();
+        return new Result<>(cacheStatsService.findQueryPlanStats());
+    }
+
+    // 통계가 꺼져 있으면 0으로 채운 결과 대신 404 (정상 동작하는 캐시처럼 보이지 않도록)
+    private void requireStatistics() {
+        if (!cacheStatsService.isStatisticsEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "hibernate.generate_statistics가 꺼져 있습니다. (dev 프로필에서 사용)");
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+}
@@ -0,0 +1,121 @@
+package jpabook.jpashop.api;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jpabook.jpashop.repository.CategoryItemDto;
+import jpabook.jpashop.service.CategoryService;
+import jpabook.jpashop.service.CategoryTree;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 / 하위 트리 상품 조회
+ * 트리는 CategoryTreeCache에서 읽으므로 DB를 조회하지 않는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final CategoryService categoryService;
+
+    @GetMapping("api/v1/categories")
+    public Result<List<CategoryTree.Node>> categories() {
+        return new Result<>(categoryService.getTree().getRoots());
+    }
+
+    @PostMapping("api/v1/categories")
+    public CreateCategoryResponse createCategory(@RequestBody @Valid CreateCategoryRequest request) {
+        Long id = categoryService.create(request.getName(), request.getParentId());
+        return new CreateCategoryResponse(id);
+    }
+
+    // 카테고리 이동 (parentId가 null이면 최상위로)
+    @PutMapping("api/v1/categories/{id}/parent")
+    public void moveCategory(@PathVariable("id") Long id, @RequestBody MoveCategoryRequest request) {
+        categoryService.move(id, request.getParentId());
+    }
+
+    // 카테고리와 모든 하위 카테고리의 상품, lastItemId 이후 limit개 (쿼리 1번, 컬렉션 초기화 없음)
+    @GetMapping("api/v1/categories/{id}/items")
+    public CategoryItemPage categoryItems(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "lastItemId", defaultValue = "0") Long lastItemId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<CategoryItemDto> items = categoryService.findItemsInSubtree(id, lastItemId, pageSize);
+
+        // 다음 페이지 요청 시 lastItemId로 넘길 값, 마지막 페이지면 null
+        Long nextLastItemId = items.size() < pageSize ? null : items.get(items.size() - 1).getItemId();
+        return new CategoryItemPage(items, nextLastItemId);
+    }
+
+    // 카테고리와 모든 하위 카테고리의 상품 수 (중복 제외)
+    @GetMapping("api/v1/categories/{id}/items/count")
+    public Result<Long> categoryItemCount(@PathVariable("id") Long id) {
+        return new Result<>(categoryService.countItemsInSubtree(id));
+    }
+
+    // 카테고리별로 직접 속한 상품 수 (group by 1번)
+    @GetMapping("api/v1/categories/item-counts")
+    public Result<List<CategoryItemCountDto>> categoryItemCounts() {
+        Map<Long, Long> counts = categoryService.countItemsByCategory();
+        List<CategoryItemCountDto> collect = new ArrayList<>();
+        collectCounts(categoryService.getTree().getRoots(), counts, collect);
+        return new Result<>(collect);
+    }
+
+    private void collectCounts(List<CategoryTree.Node> nodes, Map<Long, Long> counts, List<CategoryItemCountDto> collect) {
+        for (CategoryTree.Node node : nodes) {
+            collect.add(new CategoryItemCountDto(node.getId(), node.getName(), counts.getOrDefault(node.getId(), 0L)));
+            collectCounts(node.getChildren(), counts, collect);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+
+    @Data
+    static class CreateCategoryRequest {
+        @NotEmpty
+        private String name;
+        private Long parentId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateCategoryResponse {
+        private Long id;
+    }
+
+    @Data
+    static class MoveCategoryRequest {
+        private Long parentId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryItemPage {
+        private List<CategoryItemDto> data;
+        private Long nextLastItemId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryItemCountDto {
+        private Long categoryId;
+        private String name;
+        private long itemCount;
+    }
+}
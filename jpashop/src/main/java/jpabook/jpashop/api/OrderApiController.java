@@ -0,0 +1,184 @@
+package jpabook.jpashop.api;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.BulkCancelResult;
+import jpabook.jpashop.service.OrderIntakeService;
+import jpabook.jpashop.service.OrderLine;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.OrderTicket;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * 컬렉션 조회 (OneToMany)
+ * Order -> OrderItems -> Item
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderApiController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
+
+    // v5. JPA에서 DTO로 바로 조회, 컬렉션은 IN 절로 한 번에 조회 후 메모리에서 묶음
+    // - 주문 1번 + 주문상품 1번 = 페이지 당 쿼리 2번 (1 + N + M 문제 없음)
+    // - 컬렉션 fetch join과 달리 DB에서 페이징 가능
+    @GetMapping("api/v5/orders")
+    public Result<List<OrderQueryDto>> ordersV5(
+            @RequestParam(value = "lastOrderId", defaultValue = "0") Long lastOrderId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<OrderQueryDto> orders = orderQueryRepository.findOrderQueryDtos(lastOrderId, pageSize);
+
+        // 다음 페이지 요청 시 lastOrderId로 넘길 값, 마지막 페이지면 null
+        Long nextLastOrderId = orders.size() < pageSize ? null : orders.get(orders.size() - 1).getOrderId();
+        return new Result<>(orders, nextLastOrderId);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+        private Long nextLastOrderId;
+    }
+
+    /**
+     * 대량 주문 (B2B 연동 등)
+     * 모든 주문을 하나의 트랜잭션에서 JDBC batch로 저장한다. 하나라도 실패하면 전체가 롤백된다.
+     */
+    @PostMapping("api/v1/orders/batch")
+    public CreateOrdersResponse placeOrders(@RequestBody @Valid CreateOrdersRequest request) {
+        List<OrderLine> orderLines = request.getOrders().stream()
+                .map(o -> new OrderLine(o.getMemberId(), o.getItemId(), o.getCount()))
+                .collect(Collectors.toList());
+
+        List<Long> orderIds = orderService.placeOrders(orderLines);
+        return new CreateOrdersResponse(orderIds.size(), orderIds);
+    }
+
+    /**
+     * 주문 접수 (group commit)
+     * 주문을 대기열에 넣고 바로 티켓을 돌려준다. 처리 결과는 티켓으로 조회한다.
+     */
+    @PostMapping("api/v1/orders/intake")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public OrderTicketResponse submitOrder(@RequestBody @Valid OrderLineRequest request) {
+        try {
+            OrderTicket ticket = orderIntakeService.submit(
+                    new OrderLine(request.getMemberId(), request.getItemId(), request.getCount()));
+            orderIntakeService.track(ticket);
+            return OrderTicketResponse.of(ticket);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("api/v1/orders/intake/{ticketId}")
+    public OrderTicketResponse findOrderTicket(@PathVariable("ticketId") String ticketId) {
+        OrderTicket ticket = orderIntakeService.findTicket(ticketId);
+        if (ticket == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "존재하지 않거나 만료된 티켓입니다.");
+        }
+        return OrderTicketResponse.of(ticket);
+    }
+
+    /**
+     * 주문 일괄 취소 (운영용)
+     * orderIds를 주면 해당 주문을, 없으면 검색 조건(memberName)에 맞는 주문 상태의 주문을 모두 취소한다.
+     * 배송 완료, 이미 취소된 주문은 건너뛴다.
+     * 둘 다 없으면 전체 주문이 취소되지 않도록 400으로 거절한다.
+     */
+    @PostMapping("api/v1/orders/cancel")
+    public BulkCancelResponse cancelOrders(@RequestBody CancelOrdersRequest request) {
+        BulkCancelResult result;
+        if (request.getOrderIds() != null && !request.getOrderIds().isEmpty()) {
+            result = orderService.cancelOrders(request.getOrderIds());
+        } else if (StringUtils.hasText(request.getMemberName())) {
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setMemberName(request.getMemberName());
+            result = orderService.cancelOrders(orderSearch);
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orderIds 또는 memberName이 필요합니다.");
+        }
+        return new BulkCancelResponse(result.getRequested(), result.getCanceled(), result.getSkipped());
+    }
+
+    @Data
+    static class CreateOrdersRequest {
+        @NotEmpty
+        @Valid
+        private List<OrderLineRequest> orders;
+    }
+
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long memberId;
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrdersResponse {
+        private int count;
+        private List<Long> orderIds;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderTicketResponse {
+        private String ticketId;
+        private String status;  // PENDING, COMPLETED, FAILED
+        private Long orderId;
+        private String message;  // 실패 사유
+
+        static OrderTicketResponse of(OrderTicket ticket) {
+            CompletableFuture<Long> result = ticket.getResult();
+            if (!result.isDone()) {
+                return new OrderTicketResponse(ticket.getTicketId(), "PENDING", null, null);
+            }
+            try {
+                return new OrderTicketResponse(ticket.getTicketId(), "COMPLETED", result.join(), null);
+            } catch (CompletionException e) {
+                return new OrderTicketResponse(ticket.getTicketId(), "FAILED", null, e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Data
+    static class CancelOrdersRequest {
+        private List<Long> orderIds;
+        private String memberName;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkCancelResponse {
+        private int requested;
+        private int canceled;
+        private int skipped;
+    }
+}
@@ -1,19 +1,35 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderPage;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.service.OrderExportService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -22,17 +38,23 @@ import java.util.stream.Collectors;
  * Order -> Member
  * Order -> Delivery
  */
+@Slf4j
 @RestController
 @RequiredArgsConstructor
 public class OrderSimpleApiController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final long EXPORT_TIMEOUT_MILLIS = 30 * 60 * 1000L;  // 30분
+
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderExportService orderExportService;
+    private final ObjectMapper objectMapper;
 
-    // v1. 엔티티를 반환하는 방법 : 쓰레기
+    // v1. 엔티티를 반환하는 방법 : 쓰레기 (최신 주문 1000건만)
     @GetMapping("/api/v1/simple-orders")
     public List<Order> ordersV1() {
-        List<Order> all = orderRepository.findAllByCriteria(new OrderSearch());
+        List<Order> all = orderRepository.findPage(new OrderSearch(), null, null, 1000).getOrders();
         for (Order order : all) {
             order.getMember().getName();  // LAZY 강제 초기화
             order.getDelivery().getAddress();  // LAZY 강제 초기화
@@ -42,14 +64,18 @@ public class OrderSimpleApiController {
 
     // v2. 엔티티를 DTO로 변환하여 반환 (fetch join 사용 x)
     // - 단점 : 지연 로딩으로 N+1 문제 발생
+    // - 최신 주문부터 size건씩, 응답의 nextPageToken을 pageToken으로 넘기면 다음 페이지를 조회한다.
     @GetMapping("api/v2/simple-orders")
-    public List<SimpleOrderDto> orderV2() {
-        List<Order> orders = orderRepository.findAllByCriteria(new OrderSearch());
-        List<SimpleOrderDto> result = orders.stream()
+    public SimpleOrderPage orderV2(
+            @RequestParam(value = "pageToken", required = false) String pageToken,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+        OrderPage page = orderRepository.findPage(
+                new OrderSearch(), null, OrderCursor.decode(pageToken), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        List<SimpleOrderDto> result = page.getOrders().stream()
                 .map(o -> new SimpleOrderDto(o))
                 .collect(Collectors.toList());
 
-        return result;
+        return new SimpleOrderPage(result, page.getNextPageToken());
     }
 
     // v3. 페치 조인 사용
@@ -69,6 +95,55 @@ public class OrderSimpleApiController {
         return orderSimpleQueryRepository.findOrderDtos();
     }
 
+    // v4 스트리밍. 전체 주문을 List로 만들지 않고 읽는 대로 NDJSON(한 줄에 JSON 하나)으로 내보낸다.
+    // - 응답이 끊기면 마지막으로 받은 orderId를 afterOrderId로 넘겨 이어서 받을 수 있다.
+    // - 전체 주문을 내보낼 때까지 연결을 유지하도록 이 요청만 비동기 타임아웃을 길게 잡는다. (AsyncTimeoutConfig, 다른 요청은 기본값)
+    // - 이미 일부를 보낸 뒤 실패하면 상태 코드를 바꿀 수 없으므로, 마지막으로 보낸 orderId를 로그로 남기고 연결을 끊는다.
+    @GetMapping(value = "api/v4/simple-orders/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrdersV4(
+            @RequestParam(value = "afterOrderId", defaultValue = "0") Long afterOrderId,
+            HttpServletRequest request) {
+
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, EXPORT_TIMEOUT_MILLIS);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            AtomicLong lastOrderId = new AtomicLong(afterOrderId);
+            try {
+                orderExportService.exportSimpleOrders(afterOrderId, dto -> {
+                    writeLine(out, dto);
+                    lastOrderId.set(dto.getOrderId());
+                });
+                out.flush();
+            } catch (UncheckedIOException e) {
+                log.info("order export aborted by client. lastOrderId={}", lastOrderId.get());
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                log.error("order export failed. lastOrderId={}", lastOrderId.get(), e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(OutputStream out, OrderSimpleQueryDto dto) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(dto));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class SimpleOrderPage {
+        private List<SimpleOrderDto> data;
+        private String nextPageToken;  // 마지막 페이지면 null
+    }
+
     @Data
     static class SimpleOrderDto {
         private Long orderId;
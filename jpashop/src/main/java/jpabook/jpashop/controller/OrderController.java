@@ -1,32 +1,42 @@
 package jpabook.jpashop.controller;
 
-import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
-import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.MemberNameDto;
+import jpabook.jpashop.repository.OrderPage;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.CatalogItem;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderIntakeService;
+import jpabook.jpashop.service.OrderLine;
 import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.OrderTicket;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 @Controller
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int ORDER_PAGE_SIZE = 50;
+    private static final long ORDER_WAIT_MILLIS = 1_000;
+
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OrderIntakeService orderIntakeService;
 
     @GetMapping("/order")
     public String createForm(Model model) {
 
-        List<Member> members = memberService.findMembers();
-        List<Item> items = itemService.findItems();
+        // 선택 목록에는 id, 이름만 필요하므로 엔티티를 조회하지 않는다.
+        List<MemberNameDto> members = memberService.findMemberNames();
+        List<CatalogItem> items = itemService.findCatalogItems();
 
         model.addAttribute("members", members);
         model.addAttribute("items", items);
@@ -38,17 +48,30 @@ public class OrderController {
     @PostMapping("/order")
     public String order(@RequestParam("memberId") Long memberId,
                         @RequestParam("itemId") Long itemId,
-                        @RequestParam("count") int count) {
+                        @RequestParam("count") int count,
+                        RedirectAttributes redirectAttributes) throws InterruptedException {
 
-        orderService.order(memberId, itemId, count);
+        // 주문 접수 큐에 넣고 잠시 기다린다. (주문이 몰리면 여러 주문이 한 번에 커밋된다.)
+        // 재고 부족 등 실패는 예외로 전달된다.
+        OrderTicket ticket = orderIntakeService.submit(new OrderLine(memberId, itemId, count));
+        try {
+            ticket.await(ORDER_WAIT_MILLIS);
+        } catch (TimeoutException e) {
+            // 아직 처리 중 (나중에 커밋될 수 있으므로 실패로 보지 않는다.) 티켓을 등록하고 접수 상태로 돌려보낸다.
+            orderIntakeService.track(ticket);
+            redirectAttributes.addAttribute("pendingTicketId", ticket.getTicketId());
+        }
 
         return "redirect:/orders";
     }
 
     @GetMapping("/orders")
-    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
-        List<Order> orders = orderService.findOrders(orderSearch);
-        model.addAttribute("orders", orders);
+    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch,
+                            @RequestParam(value = "pageToken", required = false) String pageToken,
+                            Model model) {
+        OrderPage page = orderService.findOrders(orderSearch, pageToken, ORDER_PAGE_SIZE);
+        model.addAttribute("orders", page.getOrders());
+        model.addAttribute("nextPageToken", page.getNextPageToken());
 
         return "order/orderList";
     }
@@ -0,0 +1,285 @@
+package jpabook.jpashop.datagen;
+
+import jpabook.jpashop.domain.IdBlock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 부하 테스트용 대량 데이터 생성 (--spring.profiles.active=datagen, InitDb 대신 실행)
+ * 운영 규모(회원 수백만 명, 주문 수백만 건)의 성능을 로컬에서 재현하기 위해 사용한다.
+ *
+ * - EntityManager.persist 대신 JDBC batch insert로 넣는다. batch-size 건마다 전송하고 커밋하므로 메모리에 쌓이지 않는다.
+ * - id 구간을 나눠 threads개의 스레드가 동시에 넣는다. (스레드마다 커넥션 하나)
+ * - 상품 인기도는 Zipf 분포를 따른다. (일부 상품에 주문이 몰림) 주문 / 배송 상태도 섞어서 만든다.
+ * - 생성한 id 이후부터 발급되도록 끝나면 시퀀스를 다시 시작한다.
+ * - ApplicationRunner는 ApplicationReadyEvent 전에 실행되므로, 시작 시 DB를 읽는 캐시 / 색인은 생성된 데이터로 채워진다.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+public class DataGenerator implements ApplicationRunner {
+
+    private static final int STOCK_QUANTITY = 1_000_000;
+    private static final int MAX_ORDER_ITEMS = 3;  // 주문당 주문상품 수 (1 ~ 3)
+    private static final int ORDER_DAYS = 365;  // 주문일시는 최근 1년 사이
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전", "울산", "진주"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int memberCount;
+    private final int itemCount;
+    private final int orderCount;
+    private final int categoryFanout;
+    private final int categoryDepth;
+    private final double zipfExponent;
+    private final int threads;
+    private final int batchSize;
+
+    public DataGenerator(JdbcTemplate jdbcTemplate,
+                         @Value("${jpashop.datagen.members:1000000}") int memberCount,
+                         @Value("${jpashop.datagen.items:100000}") int itemCount,
+                         @Value("${jpashop.datagen.orders:2000000}") int orderCount,
+                         @Value("${jpashop.datagen.category-fanout:10}") int categoryFanout,
+                         @Value("${jpashop.datagen.category-depth:3}") int categoryDepth,
+                         @Value("${jpashop.datagen.zipf-exponent:1.0}") double zipfExponent,
+                         @Value("${jpashop.datagen.threads:4}") int threads,
+                         @Value("${jpashop.datagen.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.memberCount = memberCount;
+        this.itemCount = itemCount;
+        this.orderCount = orderCount;
+        this.categoryFanout = categoryFanout;
+        this.categoryDepth = categoryDepth;
+        this.zipfExponent = zipfExponent;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long started = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // 회원, 상품은 서로 관계가 없으므로 함께 넣고, 카테고리 / 주문은 FK 순서대로 넣는다.
+            List<Future<?>> basics = new ArrayList<>();
+            basics.addAll(submitRanges(executor, memberCount, this::insertMembers));
+            basics.addAll(submitRanges(executor, itemCount, this::insertItems));
+            await(basics, "members=" + memberCount + ", items=" + itemCount);
+
+            long categoryCount = insertCategories();
+            log.info("datagen categories={}", categoryCount);
+
+            ZipfSampler itemPopularity = new ZipfSampler(itemCount, zipfExponent);
+            await(submitRanges(executor, orderCount, (from, to) -> insertOrders(from, to, itemPopularity)),
+                    "orders=" + orderCount);
+
+            restartSequences(categoryCount);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("datagen finished. {}ms", System.currentTimeMillis() - started);
+    }
+
+    // [0, count) 구간을 스레드 수만큼 나눠 실행
+    private List<Future<?>> submitRanges(ExecutorService executor, long count, RangeWriter writer) {
+        List<Future<?>> futures = new ArrayList<>();
+        long rangeSize = (count + threads - 1) / threads;
+        for (long from = 0; from < count; from += rangeSize) {
+            long start = from;
+            long end = Math.min(from + rangeSize, count);
+            futures.add(executor.submit(() -> writer.write(start, end)));
+        }
+        return futures;
+    }
+
+    private void await(List<Future<?>> futures, String description) throws InterruptedException, ExecutionException {
+        long started = System.currentTimeMillis();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        log.info("datagen {} {}ms", description, System.currentTimeMillis() - started);
+    }
+
+    // 회원 id : 1 ~ memberCount, 이름은 유니크 제약조건이 있으므로 순번을 붙인다.
+    private void insertMembers(long from, long to) {
+        Batch batch = new Batch();
+        for (long i = from; i < to; i++) {
+            long id = i + 1;
+            batch.add(0, new Object[]{id, "member" + id, city(id), "street" + id, String.format("%05d", id % 100000)});
+            if (batch.isFull()) {
+                batch.flush("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)");
+            }
+        }
+        batch.flush("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)");
+    }
+
+    // 상품 id : 1 ~ itemCount, Book / Album / Movie를 번갈아 만든다. (single table)
+    private void insertItems(long from, long to) {
+        String sql = "insert into item (dtype, item_id, name, price, stock_quantity, version, last_modified_date," +
+                " author, isbn, artist, etc, director, actor) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Batch batch = new Batch();
+        for (long i = from; i < to; i++) {
+            long id = i + 1;
+            switch ((int) (id % 3)) {
+                case 0 -> batch.add(0, new Object[]{"B", id, "book" + id, price(id), STOCK_QUANTITY, 0L, now,
+                        "author" + id % 1000, "isbn" + id, null, null, null, null});
+                case 1 -> batch.add(0, new Object[]{"A", id, "album" + id, price(id), STOCK_QUANTITY, 0L, now,
+                        null, null, "artist" + id % 1000, "etc", null, null});
+                default -> batch.add(0, new Object[]{"M", id, "movie" + id, price(id), STOCK_QUANTITY, 0L, now,
+                        null, null, null, null, "director" + id % 1000, "actor" + id % 1000});
+            }
+            if (batch.isFull()) {
+                batch.flush(sql);
+            }
+        }
+        batch.flush(sql);
+    }
+
+    /**
+     * 카테고리 트리 (category-fanout개씩 category-depth 단계)와 상품 분류
+     * 상품은 가장 아래 단계 카테고리 하나에 속한다. 카테고리 수는 많지 않으므로 한 스레드로 넣는다.
+     * @return 생성한 카테고리 수 (= 마지막 id)
+     */
+    private long insertCategories() {
+        String sql = "insert into category (category_id, name, parent_id, path) values (?, ?, ?, ?)";
+        Batch batch = new Batch();
+        List<Object[]> level = new ArrayList<>();  // [id, path]
+        level.add(new Object[]{null, "/"});
+        long nextId = 1;
+        for (int depth = 0; depth < categoryDepth; depth++) {
+            List<Object[]> children = new ArrayList<>();
+            for (Object[] parent : level) {
+                for (int i = 0; i < categoryFanout; i++) {
+                    long id = nextId++;
+                    String path = parent[1] + String.valueOf(id) + "/";
+                    batch.add(0, new Object[]{id, "category" + id, parent[0], path});
+                    children.add(new Object[]{id, path});
+                    if (batch.isFull()) {
+                        batch.flush(sql);
+                    }
+                }
+            }
+            batch.flush(sql);  // 다음 단계의 parent_id FK
+            level = children;
+        }
+
+        if (!level.isEmpty()) {
+            String categoryItemSql = "insert into category_item (category_id, item_id) values (?, ?)";
+            for (long itemId = 1; itemId <= itemCount; itemId++) {
+                Object leafId = level.get(ThreadLocalRandom.current().nextInt(level.size()))[0];
+                batch.add(0, new Object[]{leafId, itemId});
+                if (batch.isFull()) {
+                    batch.flush(categoryItemSql);
+                }
+            }
+            batch.flush(categoryItemSql);
+        }
+        return nextId - 1;
+    }
+
+    /**
+     * 주문 id, 배송 id : 1 ~ orderCount, 주문상품 id : 주문 id * 3 + 순번
+     * - 회원은 고르게, 상품은 Zipf 분포로 고른다.
+     * - 주문 90%는 주문 상태 (그중 70%는 배송 완료), 10%는 취소 상태
+     */
+    private void insertOrders(long from, long to, ZipfSampler itemPopularity) {
+        String deliverySql = "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)";
+        String orderSql = "insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)";
+        String orderItemSql = "insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Batch batch = new Batch();
+        for (long i = from; i < to; i++) {
+            long id = i + 1;
+            long memberId = random.nextLong(memberCount) + 1;
+            boolean canceled = random.nextInt(10) == 0;
+            boolean delivered = !canceled && random.nextInt(10) < 7;
+            Timestamp orderDate = Timestamp.valueOf(now.minusSeconds(random.nextLong(ORDER_DAYS * 24L * 60 * 60)));
+
+            batch.add(0, new Object[]{id, city(memberId), "street" + memberId, String.format("%05d", memberId % 100000),
+                    delivered ? "COMP" : "READY"});
+            batch.add(1, new Object[]{id, memberId, id, orderDate, canceled ? "CANCEL" : "ORDER"});
+            int itemsInOrder = random.nextInt(MAX_ORDER_ITEMS) + 1;
+            for (int k = 0; k < itemsInOrder; k++) {
+                long itemId = itemPopularity.next();
+                batch.add(2, new Object[]{id * MAX_ORDER_ITEMS + k, itemId, id, price(itemId), random.nextInt(5) + 1});
+            }
+
+            if (batch.isFull()) {
+                // FK 순서를 지키기 위해 delivery -> orders -> order_item 순으로 반영
+                batch.flush(deliverySql, orderSql, orderItemSql);
+            }
+        }
+        batch.flush(deliverySql, orderSql, orderItemSql);
+    }
+
+    /**
+     * 생성한 id 이후부터 발급되도록 시퀀스를 다시 시작한다. (pooled-lo : 시퀀스 값이 다음 id 구간의 시작 값)
+     */
+    private void restartSequences(long categoryCount) {
+        restartSequence("member_seq", memberCount);
+        restartSequence("item_seq", itemCount);
+        restartSequence("category_seq", categoryCount);
+        restartSequence("orders_seq", orderCount);
+        restartSequence("delivery_seq", orderCount);
+        restartSequence("order_item_seq", ((long) orderCount + 1) * MAX_ORDER_ITEMS);
+    }
+
+    private void restartSequence(String sequence, long maxId) {
+        // 다음 구간 경계부터 시작 (DDL이므로 바인드 파라미터를 사용할 수 없다.)
+        long start = (maxId / IdBlock.SIZE + 1) * IdBlock.SIZE;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + start);
+    }
+
+    private static int price(long itemId) {
+        return 1000 + (int) (itemId * 7919 % 100) * 500;
+    }
+
+    private static String city(long id) {
+        return CITIES[(int) (id % CITIES.length)];
+    }
+
+    @FunctionalInterface
+    private interface RangeWriter {
+        void write(long from, long to);
+    }
+
+    // 테이블별 insert 대기 행 (스레드마다 하나씩 사용)
+    private class Batch {
+        private final List<List<Object[]>> rows = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        void add(int table, Object[] row) {
+            rows.get(table).add(row);
+        }
+
+        boolean isFull() {
+            return rows.get(0).size() >= batchSize;
+        }
+
+        // sqls[i]는 i번 테이블의 insert 문
+        void flush(String... sqls) {
+            for (int i = 0; i < sqls.length; i++) {
+                List<Object[]> tableRows = rows.get(i);
+                if (!tableRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(sqls[i], tableRows);
+                    tableRows.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.datagen;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf 분포 표본 추출 (순위 1이 가장 자주 뽑히고, 순위 k는 1 / k^exponent 비율로 뽑힌다.)
+ * 누적 분포를 미리 계산해 두고 이진 탐색으로 뽑는다. 만든 뒤에는 바뀌지 않으므로 여러 스레드가 함께 사용한다.
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int size, double exponent) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size는 1 이상이어야 합니다. size=" + size);
+        }
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * @return 1 ~ size 사이의 순위
+     */
+    public int next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int index = Arrays.binarySearch(cumulative, u);
+        if (index < 0) {
+            index = -index - 1;  // u 이상인 첫 위치
+        }
+        return Math.min(index, cumulative.length - 1) + 1;
+    }
+}
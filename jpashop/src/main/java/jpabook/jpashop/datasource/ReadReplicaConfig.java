@@ -0,0 +1,91 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 replica 라우팅 (jpashop.datasource.replica-urls를 설정했을 때만 사용)
+ * spring.datasource가 primary, replica-urls의 DB가 replica가 된다. (계정은 primary와 같다.)
+ * 서비스의 @Transactional(readOnly = true) 메서드는 replica에서 읽는다.
+ * 메모리 캐시(카테고리 트리, 상품 스냅샷, 회원 이름 필터/색인)를 다시 만드는 조회는 복제 지연된 값이 캐시되지 않도록 readOnly를 쓰지 않는다. (primary)
+ */
+@Configuration
+@ConditionalOnProperty("jpashop.datasource.replica-urls")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    private final long readYourWritesMillis;
+
+    public ReadReplicaConfig(@Value("${jpashop.datasource.read-your-writes-ms:0}") long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    @Bean
+    public ReadReplicaRouter readReplicaRouter(DataSourceProperties properties,
+                                               Environment environment,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${jpashop.datasource.replica-urls}") List<String> replicaUrls,
+                                               @Value("${jpashop.datasource.replica-connection-timeout-ms:1000}") long replicaConnectionTimeout) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = createPool(properties, binder, meterRegistry, properties.determineUrl(), "primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = createPool(properties, binder, meterRegistry, replicaUrls.get(i), "replica-" + i);
+            // replica가 응답하지 않을 때 오래 기다리지 않고 primary로 넘어가도록 짧게 설정
+            replica.setConnectionTimeout(replicaConnectionTimeout);
+            replicas.add(replica);
+        }
+        return new ReadReplicaRouter(primary, replicas);
+    }
+
+    /**
+     * 트랜잭션 시작 시점에는 readOnly 여부가 아직 정해지지 않았으므로, 첫 쿼리를 실행할 때 라우팅하도록 지연 커넥션으로 감싼다.
+     * (라우터 자체는 DataSource 빈으로 등록하지 않는다. p6spy가 두 번 감싸서 SQL이 중복 집계되지 않도록)
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRouter readReplicaRouter) {
+        return new LazyConnectionDataSourceProxy(readReplicaRouter.getDataSource());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (readYourWritesMillis > 0) {
+            registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesMillis));
+        }
+    }
+
+    /**
+     * 스프링 부트가 만드는 커넥션 풀과 같은 설정을 사용한다.
+     * spring.datasource.hikari.* (connection-timeout, max-lifetime, leak-detection-threshold 등)를 그대로 적용하고 URL, 풀 이름만 바꾼다.
+     * 풀이 빈으로 등록되지 않으므로 hikaricp.* 지표는 직접 연결한다.
+     */
+    private static HikariDataSource createPool(DataSourceProperties properties, Binder binder,
+                                               ObjectProvider<MeterRegistry> meterRegistry, String url, String poolName) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
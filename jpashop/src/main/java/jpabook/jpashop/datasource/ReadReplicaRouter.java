@@ -0,0 +1,132 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica로, 그 밖에는 primary로 커넥션을 나눠 준다.
+ *
+ * - replica가 여러 개면 돌아가며 사용한다. (round robin)
+ * - 주기적으로 replica 커넥션을 확인해서, 사용할 수 없는 replica는 건너뛴다.
+ *   커넥션을 얻다가 실패한 replica도 바로 제외하고 다음 replica, 마지막으로 primary에서 읽는다.
+ * - ReadYourWrites가 설정된 요청은 읽기 전용 트랜잭션도 primary에서 읽는다.
+ *
+ * readOnly 여부는 트랜잭션 시작 후에 정해지므로, 실제 커넥션을 첫 쿼리 시점에 얻도록 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ * (ReadReplicaConfig)
+ */
+@Slf4j
+public class ReadReplicaRouter implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final DataSource dataSource = new RoutingDataSource();
+
+    public ReadReplicaRouter(HikariDataSource primary, List<HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>();
+        replicas.forEach(replica -> this.replicas.add(new Replica(replica)));
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * replica 상태 확인 (사용할 수 없던 replica가 다시 살아나면 다시 사용)
+     */
+    @Scheduled(fixedDelayString = "${jpashop.datasource.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            replica.setHealthy(healthy);
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPrimaryRequired()) {
+            Connection connection = getReplicaConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // 사용할 수 있는 replica가 없으면 null (primary에서 읽는다.)
+    private Connection getReplicaConnection() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                log.warn("replica connection failed, falling back. replica={}", replica.dataSource.getPoolName(), e);
+                replica.setHealthy(false);
+            }
+        }
+        return null;
+    }
+
+    private static class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                log.warn("replica {} is {}", dataSource.getPoolName(), healthy ? "up" : "down");
+            }
+            this.healthy = healthy;
+        }
+    }
+
+    private class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return ReadReplicaRouter.this.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("사용자를 지정한 커넥션은 지원하지 않습니다.");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.datasource;
+
+/**
+ * 현재 스레드의 읽기 전용 트랜잭션도 primary에서 읽어야 하는지 (read-your-writes)
+ * 쓰기 직후에는 replica에 변경이 아직 복제되지 않았을 수 있으므로, 같은 사용자의 읽기를 잠시 primary로 보낸다.
+ * 요청 단위로 ReadYourWritesInterceptor가 설정하고 해제한다.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,66 @@
+package jpabook.jpashop.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 쓰기 요청 (GET, HEAD 이외) 이후 windowMillis 동안 같은 클라이언트의 읽기를 primary로 보낸다.
+ * 기한은 쿠키에 담으므로 서버가 여러 대여도 동작하고 세션을 만들지 않는다.
+ * (쓰기는 주문 접수 큐처럼 다른 스레드에서 커밋될 수도 있으므로, 커밋이 아닌 요청 기준으로 판단한다.)
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    static final String COOKIE_NAME = "jpashop_primary_until";
+
+    private final long windowMillis;
+
+    public ReadYourWritesInterceptor(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            // 응답 본문을 쓰기 전에 쿠키를 설정해야 하므로 요청 시작 시점에 설정한다.
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + windowMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (windowMillis + 999) / 1000));
+            response.addCookie(cookie);
+            ReadYourWrites.requirePrimary();
+        } else if (primaryUntil(request) > now) {
+            ReadYourWrites.requirePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWrites.clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.clear();  // 비동기 처리 시 요청 스레드가 반납되므로 여기서 해제
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,15 +13,26 @@ import java.util.List;
 import static jakarta.persistence.FetchType.*;
 
 @Entity
+// 하위 트리 경로 변경 (CategoryRepository.movePaths의 path like '/1/5/%')에 사용
+@Table(indexes = @Index(name = "idx_category_path", columnList = "path"))
 @Getter @Setter
 public class Category {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq_generator")
+    @SequenceGenerator(name = "category_seq_generator", sequenceName = "category_seq", allocationSize = IdBlock.SIZE)
     @Column(name = "category_id")
     private Long id;
 
     private String name;
 
+    /*
+    경로 (materialized path) : 루트부터 자신까지의 id를 "/"로 이은 값. 예) /1/5/12/
+    자기 자신과 모든 하위 카테고리는 같은 접두어로 시작하므로, 하위 트리를 한 번의 인덱스 범위 조회로 찾을 수 있다.
+    id는 persist 시점에 정해지므로 persist 직후 assignPath로 채운다. (CategoryService.create)
+     */
+    private String path;
+
     /*
     다대다 관계를 보여주기 위함. 적절한 방법은 아님
     객체는 컬렉션 관계를 양쪽에 가질 수 있지만,
@@ -27,6 +40,7 @@ public class Category {
     변동사항이 발생하면 어렵기 때문에 실무에서 사용하지 않는 것
      */
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)  // 카테고리별 상품 id 목록을 2차 캐시에 저장
     @JoinTable(name = "category_item",
             joinColumns = @JoinColumn(name = "category_id"),
             inverseJoinColumns = @JoinColumn(name = "item_id"))
@@ -48,4 +62,16 @@ public class Category {
         child.setParent(this);
     }
 
+    /**
+     * 부모 경로 뒤에 자신의 id를 붙여 경로를 정한다. (persist 후 id가 정해진 다음 호출)
+     * 변경 감지로 커밋 시점에 함께 저장된다.
+     * 이미 저장된 하위 트리를 옮길 때는 CategoryRepository.movePaths로 한 번에 바꾼다.
+     */
+    public void assignPath() {
+        if (id == null) {
+            throw new IllegalStateException("persist 후에 경로를 정할 수 있습니다.");
+        }
+        path = (parent == null ? "/" : parent.getPath()) + id + "/";
+    }
+
 }
@@ -0,0 +1,16 @@
+package jpabook.jpashop.domain;
+
+/**
+ * 엔티티 PK 발급 방식
+ * 각 노드는 시퀀스 값 하나로 SIZE 만큼의 id 구간을 예약하고, 구간 안의 id는 DB를 거치지 않고 메모리에서 발급한다. (pooled-lo)
+ * 시퀀스가 구간을 겹치지 않게 나눠주기 때문에 여러 노드가 같은 DB를 사용해도 id가 충돌하지 않는다.
+ * => insert마다 시퀀스를 조회하지 않으므로 JDBC batch insert가 가능하다.
+ * (노드가 재시작되면 예약해 둔 구간 중 사용하지 않은 id는 비게 된다.)
+ */
+public final class IdBlock {
+
+    public static final int SIZE = 1000;
+
+    private IdBlock() {
+    }
+}
@@ -13,12 +13,20 @@ import java.util.List;
 import static jakarta.persistence.FetchType.*;
 
 @Entity
-@Table(name = "orders")
+// 주문 목록은 최신 주문부터 (order_date, order_id) 기준 keyset 방식으로 페이지를 나눈다. (OrderRepository.findPage)
+// 상태 / 회원 조건이 있을 때도 정렬 순서대로 인덱스를 읽을 수 있도록 조건 컬럼을 앞에 둔 복합 인덱스를 함께 만든다.
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"),
+        @Index(name = "idx_orders_status_order_date_id", columnList = "status, order_date, order_id"),
+        @Index(name = "idx_orders_member_order_date_id", columnList = "member_id, order_date, order_id")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq_generator")
+    @SequenceGenerator(name = "orders_seq_generator", sequenceName = "orders_seq", allocationSize = IdBlock.SIZE)
     @Column(name = "order_id")
     private Long id;
 
@@ -17,7 +17,8 @@ import static jakarta.persistence.FetchType.*;
 public class OrderItem {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = IdBlock.SIZE)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -50,6 +51,18 @@ public class OrderItem {
         return orderItem;
     }
 
+    /**
+     * 재고를 DB에서 이미 차감한 경우 (ItemRepository.decreaseStock) 주문상품만 생성한다.
+     * 엔티티의 재고를 다시 변경하면 변경 감지로 차감 결과를 덮어쓰게 되므로 재고는 건드리지 않는다.
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     //==비즈니스 로직==//
     public void cancel() {
         getItem().addStock(count);
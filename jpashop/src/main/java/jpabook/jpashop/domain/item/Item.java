@@ -2,20 +2,30 @@ package jpabook.jpashop.domain.item;
 
 import jakarta.persistence.*;
 import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.IdBlock;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// 상품 목록 스냅샷의 변경분 조회 (ItemRepository.findCatalogRows의 last_modified_date >= :since)에 사용
+@Table(indexes = @Index(name = "idx_item_last_modified_date", columnList = "last_modified_date"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)  // 2차 캐시, Book / Album / Movie 모두 Item region을 함께 사용
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)  // 하위 클래스들을 포함하여 하나의 테이블 형태로 생성되는 옵션
 @Getter @Setter
 // 추상 클래스로 생성
 public abstract class Item {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq_generator")
+    @SequenceGenerator(name = "item_seq_generator", sequenceName = "item_seq", allocationSize = IdBlock.SIZE)
     @Column(name = "item_id")
     private Long id;
 
@@ -25,6 +35,16 @@ public abstract class Item {
 
     private int stockQuantity;
 
+    /*
+    낙관적 락 : 엔티티를 읽고 수정하는(read-modify-write) 경로(주문 취소, 상품 수정 등)에서
+    다른 트랜잭션의 재고 변경을 덮어쓰지 않도록, 커밋 시점에 버전이 바뀌었으면 예외를 발생시킨다.
+    주문 시 재고 차감은 ItemRepository.decreaseStock (조건부 UPDATE)를 사용한다.
+     */
+    @Version
+    private Long version;
+
+    private LocalDateTime lastModifiedDate;  // 상품 목록 스냅샷(CatalogSnapshotService)의 변경분 조회 기준
+
     /*
     다대다 관계를 보여주기 위함. 적절한 방법은 아님
     객체는 컬렉션 관계를 양쪽에 가질 수 있지만,
@@ -34,6 +54,12 @@ public abstract class Item {
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        lastModifiedDate = LocalDateTime.now();
+    }
+
     //==비즈니스 로직==//
 
     /**
@@ -0,0 +1,114 @@
+package jpabook.jpashop.monitoring;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 2차 캐시 region별 통계, 쿼리 계획 캐시 통계
+ * - hit / miss / put / 메모리 내 개수 : 하이버네이트 statistics (hibernate.generate_statistics, dev 프로필에서만 켜져 있고 꺼져 있으면 0)
+ * - eviction : 크기, TTL 초과로 제거된 수는 JCache 통계(MXBean)에서 조회 (application.conf의 monitoring.statistics)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final EntityManagerFactory emf;
+
+    /**
+     * hibernate.generate_statistics가 꺼져 있으면 hit / miss가 모두 0으로 집계되므로, 조회 전에 확인한다.
+     */
+    public boolean isStatisticsEnabled() {
+        return emf.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled();
+    }
+
+    public List<RegionStats> findRegionStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Long> evictions = findEvictionCounts();
+
+        List<RegionStats> result = new ArrayList<>();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            result.add(new RegionStats(
+                    regionName,
+                    region.getHitCount(),
+                    region.getMissCount(),
+                    region.getPutCount(),
+                    evictions.getOrDefault(regionName, 0L),
+                    region.getElementCountInMemory()));
+        }
+        return result;
+    }
+
+    /**
+     * 쿼리 계획 캐시 (JPQL 문자열 -> 파싱 결과) 적중률
+     * 이름 있는 쿼리(createNamedQuery)는 등록 시 파싱한 결과를 사용하므로 이 캐시를 거치지 않는다.
+     */
+    public QueryPlanStats findQueryPlanStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long hitCount = statistics.getQueryPlanCacheHitCount();
+        long missCount = statistics.getQueryPlanCacheMissCount();
+        long total = hitCount + missCount;
+        return new QueryPlanStats(
+                hitCount,
+                missCount,
+                total == 0 ? 0 : (double) hitCount / total,
+                statistics.getQueryExecutionCount());
+    }
+
+    private Map<String, Long> findEvictionCounts() {
+        Map<String, Long> evictions = new HashMap<>();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (ObjectName name : server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                Long count = (Long) server.getAttribute(name, "CacheEvictions");
+                evictions.merge(name.getKeyProperty("Cache"), count, Long::sum);
+            }
+        } catch (JMException e) {
+            log.warn("failed to read jcache statistics", e);
+        }
+        return evictions;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RegionStats {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long evictionCount;
+        private long elementCountInMemory;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class QueryPlanStats {
+        private long hitCount;
+        private long missCount;
+        private double hitRatio;
+        private long queryExecutionCount;
+    }
+}
@@ -0,0 +1,72 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 하이버네이트가 실행하는 SQL을 현재 스레드 단위로 센다. (hibernate.session_factory.statement_inspector)
+ * start ~ stop 사이에서만 세고, 그 밖에서는 아무것도 하지 않는다.
+ *
+ * 하이버네이트는 같은 쿼리를 파라미터만 바꿔 같은 SQL 문자열로 실행하므로,
+ * 한 구간에서 같은 select가 여러 번 실행되면 지연 로딩으로 인한 N+1일 가능성이 높다.
+ * repeatedSelectThreshold를 넘는 순간의 호출 위치를 스택 트레이스와 함께 경고 로그로 남긴다. (0이면 경고하지 않음)
+ */
+@Slf4j
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<Tracking> TRACKING = new ThreadLocal<>();
+
+    public static void start(int repeatedSelectThreshold) {
+        TRACKING.set(new Tracking(repeatedSelectThreshold));
+    }
+
+    public static Tracking stop() {
+        Tracking tracking = TRACKING.get();
+        TRACKING.remove();
+        return tracking;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Tracking tracking = TRACKING.get();
+        if (tracking != null) {
+            tracking.add(sql);
+        }
+        return sql;
+    }
+
+    public static class Tracking {
+        private final int repeatedSelectThreshold;
+        private final Map<String, Integer> selectCounts = new HashMap<>();
+        private int statements;
+        private int maxRepeatedSelects;
+
+        Tracking(int repeatedSelectThreshold) {
+            this.repeatedSelectThreshold = repeatedSelectThreshold;
+        }
+
+        void add(String sql) {
+            statements++;
+            if (!sql.regionMatches(true, 0, "select", 0, 6)) {
+                return;
+            }
+            int count = selectCounts.merge(sql, 1, Integer::sum);
+            maxRepeatedSelects = Math.max(maxRepeatedSelects, count);
+            if (repeatedSelectThreshold > 0 && count == repeatedSelectThreshold + 1) {
+                log.warn("same select executed more than {} times (possible N+1): {}",
+                        repeatedSelectThreshold, sql, new Throwable("repeated select"));
+            }
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getMaxRepeatedSelects() {
+            return maxRepeatedSelects;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.monitoring;
+
+/**
+ * 현재 스레드에서 실행된 SQL 수, 읽은 행 수, 로딩한 엔티티 수, JDBC 시간 누적값
+ * 값은 계속 누적되므로, 구간별 값은 시작 / 끝 스냅샷의 차이로 구한다. (RepositoryMetricsAspect)
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    private QueryCounter() {
+    }
+
+    public static Counts current() {
+        return COUNTS.get();
+    }
+
+    public static class Counts {
+        long statements;
+        long rows;
+        long entities;
+        long jdbcNanos;
+
+        public Counts snapshot() {
+            Counts copy = new Counts();
+            copy.statements = statements;
+            copy.rows = rows;
+            copy.entities = entities;
+            copy.jdbcNanos = jdbcNanos;
+            return copy;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getEntities() {
+            return entities;
+        }
+
+        public long getJdbcNanos() {
+            return jdbcNanos;
+        }
+    }
+}
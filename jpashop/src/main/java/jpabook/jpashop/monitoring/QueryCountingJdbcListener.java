@@ -0,0 +1,32 @@
+package jpabook.jpashop.monitoring;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy가 감싼 JDBC 호출마다 SQL 수, 읽은 행 수, JDBC 시간을 현재 스레드의 QueryCounter에 더한다.
+ * (p6spy-spring-boot-starter가 JdbcEventListener 빈을 자동으로 등록한다.)
+ */
+@Component
+public class QueryCountingJdbcListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryCounter.Counts counts = QueryCounter.current();
+        counts.statements++;
+        counts.jdbcNanos += timeElapsedNanos;
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        QueryCounter.Counts counts = QueryCounter.current();
+        counts.jdbcNanos += timeElapsedNanos;
+        if (hasNext) {
+            counts.rows++;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * N+1 감시
+ * - 테스트 : @ExpectedQueries(max = n) (src/test의 jpabook.jpashop.support)
+ * - 실행 중 : 요청 하나에서 같은 select가 jpashop.query-guard.repeated-select-threshold번을 넘으면 경고 로그 (0이면 끔)
+ */
+@Configuration
+public class QueryGuardConfig implements WebMvcConfigurer {
+
+    private final int repeatedSelectThreshold;
+
+    public QueryGuardConfig(@Value("${jpashop.query-guard.repeated-select-threshold:0}") int repeatedSelectThreshold) {
+        this.repeatedSelectThreshold = repeatedSelectThreshold;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (repeatedSelectThreshold > 0) {
+            registry.addInterceptor(new RepeatedQueryInterceptor(repeatedSelectThreshold));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 요청 하나를 처리하는 동안(뷰 렌더링 포함) 같은 select가 반복되는지 감시한다.
+ */
+@RequiredArgsConstructor
+public class RepeatedQueryInterceptor implements AsyncHandlerInterceptor {
+
+    private final int repeatedSelectThreshold;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCountInspector.start(repeatedSelectThreshold);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryCountInspector.stop();
+    }
+
+    // 스트리밍 응답처럼 다른 스레드에서 이어서 처리하는 경우 요청 스레드에서는 여기까지만 감시한다.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCountInspector.stop();
+    }
+}
@@ -0,0 +1,122 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드별 Micrometer 지표 (태그 : class, method)
+ * - jpashop.repository.time : 메서드 실행 시간
+ * - jpashop.repository.jdbc.time : 그중 JDBC 호출에 쓴 시간
+ * - jpashop.repository.statements / rows / entities : 호출당 SQL 수, 읽은 행 수, 로딩한 엔티티 수
+ *
+ * /actuator/metrics/jpashop.repository.time?tag=method:findPage 처럼 조회하거나,
+ * /actuator/repositorymetrics 로 메서드별 요약을 총 실행 시간 순으로 볼 수 있다.
+ */
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    void record(Method method, long elapsedNanos, long jdbcNanos, long statements, long rows, long entities) {
+        MethodMeters methodMeters = meters.computeIfAbsent(method, this::register);
+        methodMeters.time.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        methodMeters.jdbcTime.record(jdbcNanos, TimeUnit.NANOSECONDS);
+        methodMeters.statements.record(statements);
+        methodMeters.rows.record(rows);
+        methodMeters.entities.record(entities);
+    }
+
+    public List<MethodStats> findMethodStats() {
+        List<MethodStats> result = new ArrayList<>();
+        meters.forEach((method, m) -> {
+            long calls = m.time.count();
+            if (calls == 0) {
+                return;
+            }
+            result.add(new MethodStats(
+                    method.getDeclaringClass().getSimpleName() + "." + method.getName(),
+                    calls,
+                    m.time.totalTime(TimeUnit.MILLISECONDS),
+                    m.time.mean(TimeUnit.MILLISECONDS),
+                    m.time.max(TimeUnit.MILLISECONDS),
+                    percentile(m.time, 0.99),
+                    m.jdbcTime.totalTime(TimeUnit.MILLISECONDS),
+                    m.statements.mean(),
+                    m.rows.mean(),
+                    m.entities.mean()));
+        });
+        result.sort(Comparator.comparingDouble(MethodStats::getTotalTimeMs).reversed());
+        return result;
+    }
+
+    private MethodMeters register(Method method) {
+        Tags tags = Tags.of("class", method.getDeclaringClass().getSimpleName(), "method", method.getName());
+        return new MethodMeters(
+                Timer.builder("jpashop.repository.time")
+                        .tags(tags)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry),
+                Timer.builder("jpashop.repository.jdbc.time")
+                        .tags(tags)
+                        .register(meterRegistry),
+                DistributionSummary.builder("jpashop.repository.statements")
+                        .tags(tags)
+                        .register(meterRegistry),
+                DistributionSummary.builder("jpashop.repository.rows")
+                        .tags(tags)
+                        .register(meterRegistry),
+                DistributionSummary.builder("jpashop.repository.entities")
+                        .tags(tags)
+                        .register(meterRegistry));
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    @AllArgsConstructor
+    private static class MethodMeters {
+        private final Timer time;
+        private final Timer jdbcTime;
+        private final DistributionSummary statements;
+        private final DistributionSummary rows;
+        private final DistributionSummary entities;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class MethodStats {
+        private String method;
+        private long calls;
+        private double totalTimeMs;
+        private double meanTimeMs;
+        private double maxTimeMs;
+        private double p99TimeMs;
+        private double jdbcTimeMs;
+        private double statementsPerCall;
+        private double rowsPerCall;
+        private double entitiesPerCall;
+    }
+}
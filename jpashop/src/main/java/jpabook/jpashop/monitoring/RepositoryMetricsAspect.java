@@ -0,0 +1,38 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * 모든 @Repository 메서드의 실행 시간과 그 안에서 실행된 SQL 수, 읽은 행 수, 로딩한 엔티티 수, JDBC 시간을 기록한다.
+ * 메서드가 반환된 뒤의 지연 로딩(컨트롤러, 뷰에서 발생하는 N+1 등)은 해당 메서드에 포함되지 않는다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final RepositoryMetrics repositoryMetrics;
+
+    @Around("@within(org.springframework.stereotype.Repository)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryCounter.Counts before = QueryCounter.current().snapshot();
+        long startedAt = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsedNanos = System.nanoTime() - startedAt;
+            QueryCounter.Counts after = QueryCounter.current();
+            repositoryMetrics.record(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    elapsedNanos,
+                    after.getJdbcNanos() - before.getJdbcNanos(),
+                    after.getStatements() - before.getStatements(),
+                    after.getRows() - before.getRows(),
+                    after.getEntities() - before.getEntities());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package jpabook.jpashop.monitoring;
+
+import jpabook.jpashop.monitoring.RepositoryMetrics.MethodStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/repositorymetrics : 리포지토리 메서드별 호출 수, 시간, 호출당 SQL / 행 / 엔티티 수 (총 실행 시간 순)
+ */
+@Component
+@Endpoint(id = "repositorymetrics")
+@RequiredArgsConstructor
+public class RepositoryMetricsEndpoint {
+
+    private final RepositoryMetrics repositoryMetrics;
+
+    @ReadOperation
+    public List<MethodStats> methods() {
+        return repositoryMetrics.findMethodStats();
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.monitoring;
+
+import jpabook.jpashop.monitoring.SqlTraceService.SlowQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/sqltrace : 최근 느린 SQL (바인드 값, 실행 계획 포함, 최신순)
+ * 바인드 값에 회원 이름, 주소 등이 들어 있으므로 기본으로 노출하지 않는다. (management.endpoints.web.exposure.include에 추가해서 사용)
+ */
+@Component
+@Endpoint(id = "sqltrace")
+@RequiredArgsConstructor
+public class SqlTraceEndpoint {
+
+    private final SqlTraceService sqlTraceService;
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return sqlTraceService.findSlowQueries();
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 표본 SQL 추적 (p6spy 로그, 바인드 파라미터 trace 로그를 대신함)
+ * - sample-rate 비율의 SQL만 바인드 값과 함께 로그로 남긴다.
+ * - slow-threshold-ms 이상 걸린 SQL은 표본 여부와 상관없이 SqlTraceService에 실행 계획과 함께 보관한다.
+ * 추적 대상이 아닌 SQL은 시간 비교와 난수 하나만 사용한다. (SQL 문자열을 만들지 않는다.)
+ */
+@Slf4j
+@Component
+public class SqlTraceJdbcListener extends SimpleJdbcEventListener {
+
+    private final SqlTraceService sqlTraceService;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public SqlTraceJdbcListener(SqlTraceService sqlTraceService,
+                                @Value("${jpashop.sql-trace.sample-rate:0.01}") double sampleRate,
+                                @Value("${jpashop.sql-trace.slow-threshold-ms:100}") long slowThresholdMillis) {
+        this.sqlTraceService = sqlTraceService;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos >= slowThresholdNanos && !SqlTraceService.isExplaining()) {
+            sqlTraceService.captureSlow(statementInformation.getSql(), statementInformation.getSqlWithValues(), timeElapsedNanos);
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("[sampled sql] {}ms {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+        }
+    }
+}
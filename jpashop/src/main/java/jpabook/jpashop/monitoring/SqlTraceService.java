@@ -0,0 +1,134 @@
+package jpabook.jpashop.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 느린 SQL 보관함 (최근 buffer-size개만 보관하는 링 버퍼)
+ * 실행 계획(H2 EXPLAIN)은 요청 스레드를 막지 않도록 별도 스레드에서 조회해서 채운다.
+ * 실행 계획 조회 대기열이 가득 차면 계획 없이 보관한다.
+ */
+@Slf4j
+@Service
+public class SqlTraceService {
+
+    // EXPLAIN 자체가 다시 추적되지 않도록 표시
+    private static final ThreadLocal<Boolean> EXPLAINING = ThreadLocal.withInitial(() -> false);
+
+    private final ObjectProvider<DataSource> dataSource;  // DataSource가 p6spy 리스너(이 빈을 사용)에 의존하므로 지연 조회
+    private final int bufferSize;
+    private final Deque<SlowQuery> buffer;
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+        Thread thread = new Thread(runnable, "sql-trace-explain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SqlTraceService(ObjectProvider<DataSource> dataSource,
+                           @Value("${jpashop.sql-trace.buffer-size:100}") int bufferSize) {
+        this.dataSource = dataSource;
+        this.bufferSize = bufferSize;
+        this.buffer = new ArrayDeque<>(bufferSize);
+    }
+
+    static boolean isExplaining() {
+        return EXPLAINING.get();
+    }
+
+    void captureSlow(String sql, String sqlWithValues, long elapsedNanos) {
+        SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql, sqlWithValues);
+        synchronized (buffer) {
+            if (buffer.size() == bufferSize) {
+                buffer.removeFirst();
+            }
+            buffer.addLast(slowQuery);
+        }
+        if (isExplainable(sql)) {
+            try {
+                explainExecutor.execute(() -> slowQuery.plan = explain(sqlWithValues));
+            } catch (RejectedExecutionException e) {
+                slowQuery.plan = "(skipped: explain queue full)";
+            }
+        }
+    }
+
+    /**
+     * 최근 느린 SQL (최신순)
+     */
+    public List<SlowQuery> findSlowQueries() {
+        List<SlowQuery> result;
+        synchronized (buffer) {
+            result = new ArrayList<>(buffer);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private String explain(String sqlWithValues) {
+        EXPLAINING.set(true);
+        try (Connection connection = dataSource.getObject().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("explain " + sqlWithValues)) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            log.debug("explain failed: {}", sqlWithValues, e);
+            return "(explain failed: " + e.getMessage() + ")";
+        } finally {
+            EXPLAINING.set(false);
+        }
+    }
+
+    private static boolean isExplainable(String sql) {
+        String head = sql.stripLeading();
+        return head.regionMatches(true, 0, "select", 0, 6)
+                || head.regionMatches(true, 0, "update", 0, 6)
+                || head.regionMatches(true, 0, "delete", 0, 6)
+                || head.regionMatches(true, 0, "insert", 0, 6);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    @Getter
+    public static class SlowQuery {
+        private final LocalDateTime capturedAt;
+        private final long elapsedMs;
+        private final String sql;
+        private final String sqlWithValues;  // 바인드 값을 채운 SQL
+        private volatile String plan;  // 조회 전이면 null
+
+        SlowQuery(LocalDateTime capturedAt, long elapsedMs, String sql, String sqlWithValues) {
+            this.capturedAt = capturedAt;
+            this.elapsedMs = elapsedMs;
+            this.sql = sql;
+            this.sqlWithValues = sqlWithValues;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * 가상 스레드 고정(pinning) 감시 (virtual 프로필)
+ * synchronized 블록 안에서 I/O를 기다리면 가상 스레드가 캐리어 스레드를 붙잡고 있게 되어 가상 스레드의 이점이 사라진다.
+ * (Java 21 기준, JDBC 드라이버 / 커넥션 풀 / 하이버네이트 내부의 synchronized가 원인이 되는 경우가 많다.)
+ *
+ * JFR의 jdk.VirtualThreadPinned 이벤트를 스트림으로 받아서
+ * - 지표 jpashop.virtual-thread.pinned (태그 source : jdbc, hibernate, other) 로 세고
+ * - 고정된 위치를 스택 트레이스 상위 프레임과 함께 경고 로그로 남긴다.
+ */
+@Slf4j
+@Component
+@Profile("virtual")
+public class VirtualThreadPinningMonitor {
+
+    private static final int LOGGED_FRAMES = 15;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${jpashop.virtual-thread.pinned-threshold-ms:20}") long thresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("virtual profile is active but running on Java {}. virtual threads are not used.", Runtime.version().feature());
+            return;
+        }
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recordingStream.startAsync();
+        log.info("virtual thread pinning monitor started. threshold={}ms", threshold.toMillis());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String source = stackTrace == null ? "other" : source(stackTrace);
+        meterRegistry.counter("jpashop.virtual-thread.pinned", "source", source).increment();
+
+        String frames = stackTrace == null ? "(no stack trace)" : stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+        log.warn("virtual thread pinned for {}ms (source={})\n{}", event.getDuration().toMillis(), source, frames);
+    }
+
+    // 스택에서 처음 만나는 JDBC / 하이버네이트 프레임으로 원인을 분류
+    private static String source(RecordedStackTrace stackTrace) {
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("org.h2.") || type.startsWith("com.zaxxer.hikari.")
+                    || type.startsWith("com.p6spy.") || type.startsWith("java.sql.")) {
+                return "jdbc";
+            }
+            if (type.startsWith("org.hibernate.")) {
+                return "hibernate";
+            }
+        }
+        return "other";
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.repository;
+
+import lombok.Data;
+
+@Data
+public class CategoryItemDto {
+    private Long itemId;
+    private String name;
+    private int price;
+    private int stockQuantity;
+
+    public CategoryItemDto(Long itemId, String name, int price, int stockQuantity) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.repository;
+
+import lombok.Data;
+
+@Data
+public class CategoryNodeDto {
+    private Long id;
+    private String name;
+    private Long parentId;
+    private String path;
+
+    public CategoryNodeDto(Long id, String name, Long parentId, String path) {
+        this.id = id;
+        this.name = name;
+        this.parentId = parentId;
+        this.path = path;
+    }
+}
@@ -0,0 +1,99 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    // 카테고리 트리 캐시(CategoryTreeCache)용 : 엔티티 없이 id, 이름, 부모 id, 경로만 조회
+    public List<CategoryNodeDto> findAllNodes() {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.CategoryNodeDto(c.id, c.name, c.parent.id, c.path)" +
+                        " from Category c order by c.path", CategoryNodeDto.class)
+                .getResultList();
+    }
+
+    /*
+    카테고리별 상품은 category_item 테이블에서 바로 조회한다.
+    Category.items / Item.categories 컬렉션을 건드리면 상품 엔티티를 모두 읽어 오므로 (상품이 수천 개인 카테고리도 있다)
+    상품 목록은 필요한 컬럼만 페이지 단위로, 개수는 group by로 조회한다.
+     */
+
+    /**
+     * 여러 카테고리(하위 트리)에 속한 상품 한 페이지 (item_id 순)
+     * 한 상품이 여러 하위 카테고리에 속할 수 있으므로 join 대신 in (subquery)로 중복을 없앤다.
+     * @param lastItemId 이전 페이지의 마지막 상품 id, 첫 페이지는 0
+     */
+    public List<CategoryItemDto> findItemPage(Collection<Long> categoryIds, Long lastItemId, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                "select i.item_id, i.name, i.price, i.stock_quantity from item i" +
+                        " where i.item_id in (select ci.item_id from category_item ci where ci.category_id in (:categoryIds))" +
+                        " and i.item_id > :lastItemId" +
+                        " order by i.item_id")
+                .setParameter("categoryIds", categoryIds)
+                .setParameter("lastItemId", lastItemId)
+                .setMaxResults(limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new CategoryItemDto(((Number) row[0]).longValue(), (String) row[1],
+                        ((Number) row[2]).intValue(), ((Number) row[3]).intValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 카테고리별 (직접 속한) 상품 수, 상품이 없는 카테고리는 포함되지 않는다.
+     */
+    public Map<Long, Long> countItemsByCategory() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                "select ci.category_id, count(*) from category_item ci group by ci.category_id")
+                .getResultList();
+        return rows.stream()
+                .collect(Collectors.toMap(row -> ((Number) row[0]).longValue(), row -> ((Number) row[1]).longValue()));
+    }
+
+    /**
+     * 여러 카테고리(하위 트리)에 속한 상품 수 (중복 제외)
+     */
+    public long countItems(Collection<Long> categoryIds) {
+        Object count = em.createNativeQuery(
+                "select count(distinct ci.item_id) from category_item ci where ci.category_id in (:categoryIds)")
+                .setParameter("categoryIds", categoryIds)
+                .getSingleResult();
+        return ((Number) count).longValue();
+    }
+
+    /**
+     * 하위 트리의 경로 접두어를 한 번에 바꾼다. (카테고리 이동)
+     * 벌크 연산이므로 호출 후 영속성 컨텍스트의 카테고리는 이전 경로를 갖고 있다.
+     */
+    public int movePaths(String oldPrefix, String newPrefix) {
+        return em.createQuery(
+                "update Category c set c.path = concat(:newPrefix, substring(c.path, :oldLength + 1))" +
+                        " where c.path like :oldPrefixPattern")
+                .setParameter("newPrefix", newPrefix)
+                .setParameter("oldLength", oldPrefix.length())
+                .setParameter("oldPrefixPattern", oldPrefix + "%")
+                .executeUpdate();
+    }
+}
@@ -1,11 +1,21 @@
 package jpabook.jpashop.repository;
 
+import jakarta.persistence.Cache;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
@@ -27,8 +37,127 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    // 목록 조회용 : 읽기 전용으로 조회해서 변경 감지용 스냅샷을 만들지 않는다. (결과를 수정해도 DB에 반영되지 않음)
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    /**
+     * 재고 차감 (조건부 UPDATE)
+     * 재고가 충분할 때만 DB에서 바로 차감하므로, 같은 상품에 동시에 주문이 몰려도 초과 판매(lost update)가 발생하지 않는다.
+     * 비관적 락처럼 조회부터 커밋까지 락을 잡지 않고, UPDATE 한 문장 동안만 row 락을 잡는다.
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 필요하면 refresh로 엔티티를 다시 읽어야 한다.
+     * @return 재고가 부족해서 차감하지 못했으면 false
+     */
+    public boolean decreaseStock(Long itemId, int quantity) {
+        em.flush();  // 아래 native 쿼리는 자동 flush 대상이 아니므로 저장 대기 중인 변경을 먼저 반영
+        int updated = updateStock(
+                "update item" +
+                        " set stock_quantity = stock_quantity - :quantity, version = version + 1, last_modified_date = :now" +
+                        " where item_id = :itemId" +
+                        " and stock_quantity >= :quantity", itemId, quantity);
+        return updated == 1;
+    }
+
+    /**
+     * 재고 장부(HotStockLedger)에 모아 둔 차감량 반영
+     * 재고 부족 여부는 장부에서 이미 확인했으므로 조건 없이 차감한다.
+     */
+    public void applyStockDelta(Long itemId, long delta) {
+        updateStock(
+                "update item" +
+                        " set stock_quantity = stock_quantity - :quantity, version = version + 1, last_modified_date = :now" +
+                        " where item_id = :itemId", itemId, Math.toIntExact(delta));
+    }
+
+    /*
+    JPQL 벌크 연산은 2차 캐시의 Item region 전체를 비우기 때문에, 주문이 들어올 때마다 모든 상품 캐시가 사라진다.
+    native 쿼리에 어떤 테이블과도 맞지 않는 query space("")를 지정하면 region 전체를 비우지 않으므로,
+    변경한 상품 하나만 캐시에서 제거한다. (커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시할 수 있으므로 커밋 후에 한 번 더 제거)
+     */
+    private int updateStock(String sql, Long itemId, int quantity) {
+        int updated = em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+
+        evict(List.of(itemId));
+        return updated;
+    }
+
+    /**
+     * 일괄 취소한 주문의 재고를 되돌린다. (상품별 주문 수량 합계만큼, UPDATE 한 번)
+     * @param itemIds 주문에 포함된 상품 id (캐시에서 제거할 대상)
+     */
+    public int restoreStocks(Collection<Long> orderIds, Collection<Long> itemIds) {
+        em.flush();
+        int updated = em.createNativeQuery(
+                "update item i" +
+                        " set stock_quantity = stock_quantity +" +
+                        " (select sum(oi.count) from order_item oi where oi.order_id in (:orderIds) and oi.item_id = i.item_id)," +
+                        " version = version + 1, last_modified_date = :now" +
+                        " where i.item_id in (select oi.item_id from order_item oi where oi.order_id in (:orderIds))")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setParameter("orderIds", orderIds)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+        evict(itemIds);
+        return updated;
+    }
+
+    private void evict(Collection<Long> itemIds) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        itemIds.forEach(itemId -> cache.evict(Item.class, itemId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    itemIds.forEach(itemId -> cache.evict(Item.class, itemId));
+                }
+            });
+        }
+    }
+
+    public Map<Long, Integer> findStockQuantities(Collection<Long> ids) {
+        return em.createQuery("select i.id, i.stockQuantity from Item i where i.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList().stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Integer) row[1]));
+    }
+
+    /**
+     * 상품 목록 스냅샷용 조회 (엔티티를 만들지 않고 필요한 컬럼만 조회)
+     * @param since 이 시각 이후에 변경된 상품만 조회, null이면 전체
+     * @return [item_id, name, price, stock_quantity, dtype] (item_id 순)
+     */
+    public List<Object[]> findCatalogRows(LocalDateTime since) {
+        String sql = "select item_id, name, price, stock_quantity, dtype from item" +
+                (since == null ? "" : " where last_modified_date >= :since") +
+                " order by item_id";
+        Query query = em.createNativeQuery(sql)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, 1000);
+        if (since != null) {
+            query.setParameter("since", since);
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows;
+    }
+
+    public void refresh(Item item) {
+        em.refresh(item);
+    }
+
+    // IN 절로 여러 상품을 한 번에 조회
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
                 .getResultList();
     }
 
@@ -0,0 +1,14 @@
+package jpabook.jpashop.repository;
+
+import lombok.Data;
+
+@Data
+public class MemberNameDto {
+    private Long id;
+    private String name;
+
+    public MemberNameDto(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+}
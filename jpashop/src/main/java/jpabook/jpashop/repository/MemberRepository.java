@@ -4,10 +4,14 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /*
 @Repository : 스프링 빈으로 등록해 줌
@@ -49,8 +53,48 @@ public class MemberRepository {
     SQL : 테이블을 from의 대상으로 쿼리를 작성
     JPQL : 엔티티를 from의 대상으로 쿼리를 작성 (기본편 참고)
      */
+    // 목록 조회용 : 읽기 전용으로 조회해서 변경 감지용 스냅샷을 만들지 않는다. (결과를 수정해도 DB에 반영되지 않음)
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class).getResultList();
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    // 화면의 회원 선택 목록처럼 id, 이름만 필요한 경우 엔티티 대신 DTO로 조회
+    public List<MemberNameDto> findAllNames() {
+        return em.createQuery("select new jpabook.jpashop.repository.MemberNameDto(m.id, m.name) from Member m", MemberNameDto.class)
+                .getResultList();
+    }
+
+    // IN 절로 여러 회원을 한 번에 조회
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        return em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    // 존재 여부만 필요하므로 엔티티를 만들지 않고 한 건만 확인 (uk_member_name 인덱스 사용)
+    public boolean existsByName(String name) {
+        return !em.createQuery("select 1 from Member m where m.name = :name", Integer.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    // 전체 회원 id, 이름을 엔티티 없이 스트림으로 읽는다. (트랜잭션 안에서 호출)
+    public void forEachName(Consumer<MemberNameDto> action) {
+        try (Stream<MemberNameDto> names = em.createQuery(
+                        "select new jpabook.jpashop.repository.MemberNameDto(m.id, m.name) from Member m where m.name is not null", MemberNameDto.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, 1000)
+                .getResultStream()) {
+            names.forEach(action);
+        }
+    }
+
+    // 제약조건 위반을 이 시점에 DataIntegrityViolationException으로 받기 위해 사용
+    public void flush() {
+        em.flush();
     }
 
     public List<Member> findByName(String name) {
@@ -0,0 +1,46 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 주문 목록 다음 페이지 위치 (마지막으로 받은 주문의 주문일시, 주문 id)
+ * 클라이언트에는 내용을 알 수 없는 토큰(base64url)으로 전달한다.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+
+    private LocalDateTime orderDate;
+    private Long orderId;
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getOrderDate(), order.getId());
+    }
+
+    public String encode() {
+        String value = orderDate + "," + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * token이 비어 있으면 첫 페이지 (null)
+     */
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(",");
+            return new OrderCursor(LocalDateTime.parse(values[0]), Long.valueOf(values[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 페이지 토큰입니다.", e);
+        }
+    }
+}
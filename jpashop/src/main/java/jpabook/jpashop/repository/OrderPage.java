@@ -0,0 +1,19 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class OrderPage {
+
+    private List<Order> orders;
+    private String nextPageToken;  // 마지막 페이지면 null
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
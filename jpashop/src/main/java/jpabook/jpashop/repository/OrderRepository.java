@@ -1,22 +1,31 @@
 package jpabook.jpashop.repository;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.*;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
 
     private final EntityManager em;
+    private final EntityManagerFactory emf;
 
     public void save(Order order) {
         em.persist(order);
@@ -26,6 +35,15 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    /**
+     * 쓰기 지연 SQL 저장소의 insert, update를 DB에 반영하고 영속성 컨텍스트를 비운다.
+     * 대량 작업 시 1차 캐시에 엔티티가 계속 쌓이는 것을 막기 위해 사용
+     */
+    public void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
     // 동적 쿼리 문제를 해결하는 방법
     /*
     // [방법 1]문자를 무식하게 더하는 방법
@@ -71,46 +89,178 @@ public class OrderRepository {
 
     // [방법 2] JPA Criteria 방식으로 해결하는 방법 (JPA 표준 스펙)
     // 치명적인 단점 : 유지보수성 제로. 코드를 정확히 이해하기 힘듦
-    public List<Order> findAllByCriteria(OrderSearch orderSearch) {
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Order> cq = cb.createQuery(Order.class);
-        Root<Order> o = cq.from(Order.class);
-        Join<Object, Object> m = o.join("member", JoinType.INNER);
+    // 호출할 때마다 쿼리 트리를 새로 만들어 해석하므로 [방법 4]로 대체했다.
 
-        List<Predicate> criteria = new ArrayList<>();
 
-        // 주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            Predicate status = cb.equal(o.get("status"), orderSearch.getOrderStatus());
-            criteria.add(status);
+    // [방법 3] 동적 쿼리를 쉽게 해결하는 방법 : QueryDSL
+    // QueryDSL 강의가 별도로 존재
+
+
+    // [방법 4] 조건 조합이 몇 개 안 되므로, 조합마다 JPQL을 시작 시 한 번만 파싱해서 이름 있는 쿼리로 등록해 두는 방법
+    // Criteria는 호출할 때마다 쿼리 트리를 새로 만들고 해석해야 하지만, 등록된 쿼리는 파싱 결과를 그대로 재사용한다.
+    // 조합 : 주문 상태(있음/없음) x 회원 이름(없음 / like / 회원 id IN) x 페이지(첫 페이지 / 다음 페이지) = 12개
+    private static final String SEARCH_QUERY_PREFIX = "Order.search";
+
+    @PostConstruct
+    public void registerSearchQueries() {
+        EntityManager registerEm = emf.createEntityManager();
+        try {
+            for (boolean status : new boolean[]{false, true}) {
+                for (NameCondition name : NameCondition.values()) {
+                    for (boolean after : new boolean[]{false, true}) {
+                        String jpql = "select o from Order o join o.member m"
+                                + searchWhereClause(status, name, after)
+                                + " order by o.orderDate desc, o.id desc";
+                        emf.addNamedQuery(searchQueryName(status, name, after), registerEm.createQuery(jpql, Order.class));
+                    }
+                }
+            }
+        } finally {
+            registerEm.close();
         }
+    }
 
-        //회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            Predicate name =
-                    cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName()
-                            + "%");
-            criteria.add(name);
+    /**
+     * 주문 목록 페이지 조회 (최신 주문부터, keyset 방식)
+     * offset 대신 이전 페이지 마지막 주문의 (주문일시, 주문 id) 다음부터 읽으므로 몇 번째 페이지든 비용이 같다.
+     * (orders 테이블의 (order_date, order_id) 복합 인덱스 사용)
+     *
+     * @param memberIds 회원 이름 검색 대신 사용할 회원 id 목록 (MemberNameIndex로 미리 찾은 값, 없으면 null)
+     * @param after 이전 페이지 마지막 주문 (첫 페이지면 null)
+     */
+    public OrderPage findPage(OrderSearch orderSearch, Collection<Long> memberIds, OrderCursor after, int size) {
+        if (memberIds != null && memberIds.isEmpty()) {
+            return new OrderPage(List.of(), null);
         }
 
-        cq.where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
-        TypedQuery<Order> query = em.createQuery(cq).setMaxResults(1000);
-        return query.getResultList();
+        boolean status = orderSearch.getOrderStatus() != null;
+        NameCondition name = memberIds != null ? NameCondition.MEMBER_IDS
+                : StringUtils.hasText(orderSearch.getMemberName()) ? NameCondition.LIKE
+                : NameCondition.NONE;
+
+        TypedQuery<Order> query = em.createNamedQuery(searchQueryName(status, name, after != null), Order.class)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)  // 화면 / API 응답용, 변경 감지 스냅샷을 만들지 않는다.
+                .setMaxResults(size + 1);  // 다음 페이지가 있는지 알기 위해 한 건 더 조회
+        if (status) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (name == NameCondition.LIKE) {
+            query.setParameter("name", "%" + orderSearch.getMemberName() + "%");
+        } else if (name == NameCondition.MEMBER_IDS) {
+            query.setParameter("memberIds", memberIds);
+        }
+        if (after != null) {
+            query.setParameter("cursorDate", after.getOrderDate());
+            query.setParameter("cursorId", after.getOrderId());
+        }
+
+        List<Order> orders = query.getResultList();
+        if (orders.size() <= size) {
+            return new OrderPage(orders, null);
+        }
+        orders = orders.subList(0, size);
+        return new OrderPage(orders, OrderCursor.of(orders.get(size - 1)).encode());
+    }
+
+    private static String searchWhereClause(boolean status, NameCondition name, boolean after) {
+        List<String> conditions = new ArrayList<>();
+        if (status) {
+            conditions.add("o.status = :status");
+        }
+        if (name == NameCondition.LIKE) {
+            conditions.add("m.name like :name");
+        } else if (name == NameCondition.MEMBER_IDS) {
+            conditions.add("m.id in :memberIds");
+        }
+        if (after) {
+            // or 조건만으로는 인덱스 범위 조회가 되지 않으므로, 같은 의미의 범위 조건(<=)을 앞에 함께 둔다.
+            conditions.add("o.orderDate <= :cursorDate");
+            conditions.add("(o.orderDate < :cursorDate or (o.orderDate = :cursorDate and o.id < :cursorId))");
+        }
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
     }
 
+    private static String searchQueryName(boolean status, NameCondition name, boolean after) {
+        return SEARCH_QUERY_PREFIX + (status ? ".status" : "") + "." + name.name().toLowerCase() + (after ? ".after" : "");
+    }
 
-    // [방법 3] 동적 쿼리를 쉽게 해결하는 방법 : QueryDSL
-    // QueryDSL 강의가 별도로 존재
+    private enum NameCondition {
+        NONE, LIKE, MEMBER_IDS
+    }
+
+
+
+    /*
+    일괄 취소 (OrderService.cancelOrders)
+    Order.cancel()은 주문마다 배송, 주문상품, 상품을 지연 로딩해서 하나씩 재고를 되돌린다.
+    일괄 취소는 주문 id 목록 단위로 몇 개의 집합 연산만 실행한다.
+    벌크 연산은 영속성 컨텍스트를 거치지 않으므로 호출한 쪽에서 flushAndClear로 비워야 한다.
+     */
+
+    /**
+     * 검색 조건에 맞는 취소 가능 주문(ORDER) id, 주문 상태 조건은 무시한다.
+     * @param memberIds 회원 이름 검색 대신 사용할 회원 id 목록 (없으면 null)
+     */
+    public List<Long> findOrderedIds(OrderSearch orderSearch, Collection<Long> memberIds) {
+        if (memberIds != null && memberIds.isEmpty()) {
+            return List.of();
+        }
+        NameCondition name = memberIds != null ? NameCondition.MEMBER_IDS
+                : StringUtils.hasText(orderSearch.getMemberName()) ? NameCondition.LIKE
+                : NameCondition.NONE;
 
+        TypedQuery<Long> query = em.createQuery(
+                "select o.id from Order o join o.member m" + searchWhereClause(true, name, false) + " order by o.id", Long.class)
+                .setParameter("status", OrderStatus.ORDER);
+        if (name == NameCondition.LIKE) {
+            query.setParameter("name", "%" + orderSearch.getMemberName() + "%");
+        } else if (name == NameCondition.MEMBER_IDS) {
+            query.setParameter("memberIds", memberIds);
+        }
+        return query.getResultList();
+    }
 
+    /**
+     * 취소할 수 있는 주문 (주문 상태이고 배송 완료가 아닌 주문)을 골라 row 락을 건다. (select ... for update)
+     * 동시에 같은 주문을 취소해도 한쪽만 재고를 되돌린다.
+     */
+    public List<Long> lockCancelableIds(Collection<Long> orderIds) {
+        return em.createQuery(
+                "select o.id from Order o" +
+                        " where o.id in :orderIds and o.status = :status" +
+                        " and not exists (select d.id from Delivery d where d = o.delivery and d.status = :comp)", Long.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    // 상품별 주문 수량 합계
+    public Map<Long, Long> sumCountsByItem(Collection<Long> orderIds) {
+        return em.createQuery(
+                "select oi.item.id, sum(oi.count) from OrderItem oi where oi.order.id in :orderIds group by oi.item.id", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList().stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> ((Number) row[1]).longValue()));
+    }
+
+    public int markCanceled(Collection<Long> orderIds) {
+        return em.createQuery("update Order o set o.status = :status where o.id in :orderIds")
+                .setParameter("status", OrderStatus.CANCEL)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
 
     // fetch join : LAZY를 무시하고 해당 파라미터들을 포함하여 조회한다.
+    // 트랜잭션 없이 (OSIV) 호출되므로 세션 기본값이 읽기 전용이 아니다. fetch join한 회원, 배송까지 읽기 전용으로 조회한다.
     public List<Order> findAllWithMemberDelivery() {
         return em.createQuery(
                 "select o from Order o" +
                         " join fetch o.member m" +
                         " join fetch o.delivery d", Order.class
-        ).getResultList();
+        ).setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultList();
     }
 
 }
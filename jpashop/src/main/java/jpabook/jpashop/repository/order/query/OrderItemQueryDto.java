@@ -0,0 +1,21 @@
+package jpabook.jpashop.repository.order.query;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+@Data
+public class OrderItemQueryDto {
+
+    @JsonIgnore
+    private Long orderId;  // 주문 id 별로 묶기 위한 값, 응답에는 노출하지 않는다.
+    private String itemName;  // 상품 명
+    private int orderPrice;  // 주문 가격
+    private int count;  // 주문 수량
+
+    public OrderItemQueryDto(Long orderId, String itemName, int orderPrice, int count) {
+        this.orderId = orderId;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+    }
+}
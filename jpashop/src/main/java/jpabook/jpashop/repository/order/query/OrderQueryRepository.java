@@ -0,0 +1,70 @@
+package jpabook.jpashop.repository.order.query;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 + 주문상품(컬렉션) 조회 전용 레포지토리
+ * 컬렉션을 fetch join 하면 페이징이 불가능하므로 (메모리에서 페이징),
+ * 주문은 페이지 단위로 조회하고 주문상품은 IN 절 한 번으로 가져와서 메모리에서 주문 id 별로 묶는다.
+ * => 페이지 크기와 상관없이 쿼리 2번
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderQueryRepository {
+
+    private final EntityManager em;
+
+    /**
+     * @param lastOrderId 이전 페이지의 마지막 주문 id (첫 페이지는 0)
+     * @param limit 페이지 크기
+     */
+    public List<OrderQueryDto> findOrderQueryDtos(Long lastOrderId, int limit) {
+        List<OrderQueryDto> result = findOrders(lastOrderId, limit);
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        List<Long> orderIds = result.stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
+        result.forEach(o -> o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), List.of())));
+
+        return result;
+    }
+
+    // XToOne 관계는 조인해도 row 수가 늘어나지 않으므로 페이징 가능 (keyset : 주문 id 기준)
+    private List<OrderQueryDto> findOrders(Long lastOrderId, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " where o.id > :lastOrderId" +
+                                " order by o.id", OrderQueryDto.class)
+                .setParameter("lastOrderId", lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 페이지에 포함된 주문들의 주문상품 + 상품을 한 번에 조회
+    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        List<OrderItemQueryDto> orderItems = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi" +
+                                " join oi.item i" +
+                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        return orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+    }
+}
@@ -2,14 +2,20 @@ package jpabook.jpashop.repository.order.simplequery;
 
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderSimpleQueryRepository {
 
+    private static final int EXPORT_FETCH_SIZE = 500;  // JDBC에서 한 번에 가져오는 row 수
+
     private final EntityManager em;
 
     public List<OrderSimpleQueryDto> findOrderDtos() {
@@ -20,4 +26,34 @@ public class OrderSimpleQueryRepository {
                                 " join o.delivery d", OrderSimpleQueryDto.class)
                 .getResultList();
     }
+
+    /**
+     * 전체 주문을 List로 모으지 않고, 커서(forward-only)로 한 건씩 읽으면서 consumer에 넘긴다.
+     * - afterOrderId 이후의 주문부터 주문 id 순으로 읽으므로, 중간에 끊기면 마지막 id부터 이어서 받을 수 있다. (keyset)
+     * - DTO로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않고, 테이블 크기와 상관없이 힙 사용량이 일정하다.
+     * - 커서가 열려 있는 동안 커넥션을 사용하므로 반드시 트랜잭션 안에서 호출해야 한다.
+     * @return 내보낸 주문 수
+     */
+    public long forEachOrderDto(Long afterOrderId, Consumer<OrderSimpleQueryDto> consumer) {
+        long count = 0;
+        try (Stream<OrderSimpleQueryDto> stream = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
+                                "from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " where o.id > :afterOrderId" +
+                                " order by o.id", OrderSimpleQueryDto.class)
+                .setParameter("afterOrderId", afterOrderId)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+
+            Iterator<OrderSimpleQueryDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,20 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 일괄 취소 결과
+ * 이미 취소된 주문, 배송 완료된 주문, 없는 주문은 취소하지 않고 skipped로 센다.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkCancelResult {
+
+    private final int requested;
+    private final int canceled;
+
+    public int getSkipped() {
+        return requested - canceled;
+    }
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 상품 목록 스냅샷의 한 행
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogItem {
+
+    private Long id;
+    private String name;
+    private int price;
+    private int stockQuantity;
+    private char dtype;  // B : Book, A : Album, M : Movie
+}
@@ -0,0 +1,119 @@
+package jpabook.jpashop.service;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 상품 목록 스냅샷 (불변)
+ * 상품 하나를 엔티티 객체로 들고 있지 않고, 컬럼별 기본형 배열에 item_id 순으로 저장한다.
+ * 영속성 컨텍스트, 변경 감지 스냅샷, 프록시 없이 배열만 읽으므로 목록 화면을 여러 번 조회해도 DB와 엔티티 생성 비용이 없다.
+ */
+public final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(new long[0], new String[0], new int[0], new int[0], new char[0]);
+
+    private final long[] ids;
+    private final String[] names;
+    private final int[] prices;
+    private final int[] stockQuantities;
+    private final char[] dtypes;  // B : Book, A : Album, M : Movie
+
+    CatalogSnapshot(long[] ids, String[] names, int[] prices, int[] stockQuantities, char[] dtypes) {
+        this.ids = ids;
+        this.names = names;
+        this.prices = prices;
+        this.stockQuantities = stockQuantities;
+        this.dtypes = dtypes;
+    }
+
+    /**
+     * [item_id, name, price, stock_quantity, dtype] 행(item_id 순)으로 스냅샷 생성
+     */
+    static CatalogSnapshot of(List<Object[]> rows) {
+        int size = rows.size();
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        int[] prices = new int[size];
+        int[] stockQuantities = new int[size];
+        char[] dtypes = new char[size];
+        for (int i = 0; i < size; i++) {
+            Object[] row = rows.get(i);
+            ids[i] = ((Number) row[0]).longValue();
+            names[i] = (String) row[1];
+            prices[i] = ((Number) row[2]).intValue();
+            stockQuantities[i] = ((Number) row[3]).intValue();
+            dtypes[i] = ((String) row[4]).charAt(0);
+        }
+        return new CatalogSnapshot(ids, names, prices, stockQuantities, dtypes);
+    }
+
+    /**
+     * 변경된 행(item_id 순)을 반영한 새 스냅샷 생성 (정렬된 두 배열 병합)
+     * 기존 스냅샷은 변경하지 않으므로 읽는 쪽은 락 없이 사용할 수 있다.
+     */
+    CatalogSnapshot merge(CatalogSnapshot changed) {
+        if (changed.size() == 0) {
+            return this;
+        }
+        int capacity = size() + changed.size();
+        long[] newIds = new long[capacity];
+        String[] newNames = new String[capacity];
+        int[] newPrices = new int[capacity];
+        int[] newStockQuantities = new int[capacity];
+        char[] newDtypes = new char[capacity];
+
+        int i = 0, j = 0, k = 0;
+        while (i < size() || j < changed.size()) {
+            CatalogSnapshot source;
+            int index;
+            if (j >= changed.size() || (i < size() && ids[i] < changed.ids[j])) {
+                source = this;
+                index = i++;
+            } else {
+                if (i < size() && ids[i] == changed.ids[j]) {
+                    i++;  // 같은 상품이면 변경된 값으로 교체
+                }
+                source = changed;
+                index = j++;
+            }
+            newIds[k] = source.ids[index];
+            newNames[k] = source.names[index];
+            newPrices[k] = source.prices[index];
+            newStockQuantities[k] = source.stockQuantities[index];
+            newDtypes[k] = source.dtypes[index];
+            k++;
+        }
+
+        if (k == capacity) {
+            return new CatalogSnapshot(newIds, newNames, newPrices, newStockQuantities, newDtypes);
+        }
+        return new CatalogSnapshot(
+                Arrays.copyOf(newIds, k),
+                Arrays.copyOf(newNames, k),
+                Arrays.copyOf(newPrices, k),
+                Arrays.copyOf(newStockQuantities, k),
+                Arrays.copyOf(newDtypes, k));
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 화면, API에서 사용하는 목록 (행을 읽을 때만 작은 뷰 객체를 만든다.)
+     */
+    public List<CatalogItem> items() {
+        return new AbstractList<>() {
+            @Override
+            public CatalogItem get(int index) {
+                return new CatalogItem(ids[index], names[index], prices[index], stockQuantities[index], dtypes[index]);
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+}
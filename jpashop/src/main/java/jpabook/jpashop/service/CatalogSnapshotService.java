@@ -0,0 +1,113 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 상품 목록 스냅샷 관리
+ * - 주기적으로 마지막 갱신 이후 변경된 상품(last_modified_date)만 읽어서 새 스냅샷을 만든다.
+ * - 갱신 시각보다 먼저 시작해서 늦게 커밋된 트랜잭션을 놓치지 않도록 OVERLAP 만큼 겹쳐서 조회하고,
+ *   변경 시각이 없는 행(SQL로 직접 넣은 데이터 등)도 반영되도록 가끔 전체를 다시 읽는다.
+ * - 재고는 갱신 주기만큼 늦게 보일 수 있다. 주문 시 재고 확인은 항상 DB(또는 재고 장부)에서 한다.
+ * - 갱신은 스케줄러 스레드에서만 한다. 상품 등록, 수정은 갱신을 앞당기도록 요청만 하고 (요청 스레드에서 전체 로딩이 일어나지 않도록) 바로 돌아간다.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private static final Duration OVERLAP = Duration.ofSeconds(10);
+    private static final long REFRESH_CHECK_MILLIS = 100;  // 갱신 요청을 확인하는 주기
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final long refreshIntervalMillis;
+    private final long fullRefreshIntervalMillis;
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    private volatile CatalogSnapshot snapshot;
+    private LocalDateTime lastRefreshStartedAt;
+    private volatile long lastRefreshMillis;
+    private long lastFullRefreshMillis;
+
+    public CatalogSnapshotService(ItemRepository itemRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jpashop.catalog.refresh-interval-ms:1000}") long refreshIntervalMillis,
+                                  @Value("${jpashop.catalog.full-refresh-interval-ms:600000}") long fullRefreshIntervalMillis) {
+        this.itemRepository = itemRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        // readOnly로 조회하면 replica로 라우팅되어, 커밋 직후 반영하려던 변경분을 놓칠 수 있으므로 primary에서 읽는다.
+        // 커밋 후(afterCommit)에 호출되어도 끝난 트랜잭션에 참여하지 않도록 항상 새 트랜잭션으로 조회
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.fullRefreshIntervalMillis = fullRefreshIntervalMillis;
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * 갱신 요청이 있거나 refresh-interval-ms가 지났으면 갱신한다. (스케줄러 스레드)
+     */
+    @Scheduled(fixedDelay = REFRESH_CHECK_MILLIS)
+    public void refreshIfDue() {
+        boolean requested = refreshRequested.getAndSet(false);
+        if (requested || System.currentTimeMillis() - lastRefreshMillis >= refreshIntervalMillis) {
+            refresh();
+        }
+    }
+
+    // 시작 시 첫 로딩, 스케줄러 외에는 스냅샷이 없을 때(getSnapshot)만 호출된다.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long nowMillis = System.currentTimeMillis();
+
+        if (snapshot == null || nowMillis - lastFullRefreshMillis >= fullRefreshIntervalMillis) {
+            snapshot = primaryTransaction.execute(status -> CatalogSnapshot.of(itemRepository.findCatalogRows(null)));
+            lastFullRefreshMillis = nowMillis;
+            log.debug("catalog snapshot fully loaded. size={}", snapshot.size());
+        } else {
+            LocalDateTime since = lastRefreshStartedAt.minus(OVERLAP);
+            CatalogSnapshot changed = primaryTransaction.execute(status -> CatalogSnapshot.of(itemRepository.findCatalogRows(since)));
+            snapshot = snapshot.merge(changed);
+        }
+        lastRefreshStartedAt = startedAt;
+        lastRefreshMillis = nowMillis;
+    }
+
+    /**
+     * 상품 등록, 수정 직후 목록 화면으로 이동하면 바로 보이도록 커밋 후 갱신을 요청한다. (REFRESH_CHECK_MILLIS 안에 반영)
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshRequested.set(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshRequested.set(true);
+            }
+        });
+    }
+}
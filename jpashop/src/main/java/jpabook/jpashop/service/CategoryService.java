@@ -0,0 +1,92 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.repository.CategoryItemDto;
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryTreeCache categoryTreeCache;
+
+    /**
+     * 카테고리 생성 (parentId가 null이면 최상위)
+     */
+    @Transactional
+    public Long create(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        if (parentId != null) {
+            findCategory(parentId).addChildCategory(category);
+        }
+        categoryRepository.save(category);
+        category.assignPath();  // 시퀀스로 id가 정해졌으므로 경로를 채운다. (insert는 flush 때)
+        categoryTreeCache.invalidateAfterCommit();
+        return category.getId();
+    }
+
+    /**
+     * 카테고리를 하위 트리째 다른 부모 아래로 옮긴다. (newParentId가 null이면 최상위로)
+     * 하위 카테고리를 하나씩 읽지 않고 경로 접두어만 벌크 UPDATE로 바꾼다.
+     */
+    @Transactional
+    public void move(Long categoryId, Long newParentId) {
+        Category category = findCategory(categoryId);
+        Category newParent = newParentId == null ? null : findCategory(newParentId);
+        if (newParent != null && newParent.getPath().startsWith(category.getPath())) {
+            throw new IllegalArgumentException("자신의 하위 카테고리로 옮길 수 없습니다.");
+        }
+
+        String oldPath = category.getPath();
+        String newPath = (newParent == null ? "/" : newParent.getPath()) + category.getId() + "/";
+        category.setParent(newParent);
+        categoryRepository.movePaths(oldPath, newPath);  // 실행 전에 parent 변경이 flush 된다.
+        category.setPath(newPath);  // 벌크 연산은 영속성 컨텍스트에 반영되지 않으므로 옮긴 카테고리는 직접 맞춘다.
+        categoryTreeCache.invalidateAfterCommit();
+    }
+
+    public CategoryTree getTree() {
+        return categoryTreeCache.get();
+    }
+
+    /**
+     * 카테고리와 모든 하위 카테고리의 상품 한 페이지
+     * 트리 캐시로 하위 카테고리 id를 구하고, category_item에서 쿼리 한 번으로 조회한다. (상품 컬렉션은 초기화하지 않음)
+     */
+    public List<CategoryItemDto> findItemsInSubtree(Long categoryId, Long lastItemId, int limit) {
+        List<Long> categoryIds = categoryTreeCache.get().subtreeIds(categoryId);
+        if (categoryIds.isEmpty()) {
+            return List.of();
+        }
+        return categoryRepository.findItemPage(categoryIds, lastItemId, limit);
+    }
+
+    public long countItemsInSubtree(Long categoryId) {
+        List<Long> categoryIds = categoryTreeCache.get().subtreeIds(categoryId);
+        if (categoryIds.isEmpty()) {
+            return 0;
+        }
+        return categoryRepository.countItems(categoryIds);
+    }
+
+    public Map<Long, Long> countItemsByCategory() {
+        return categoryRepository.countItemsByCategory();
+    }
+
+    private Category findCategory(Long categoryId) {
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("존재하지 않는 카테고리입니다. categoryId=" + categoryId);
+        }
+        return category;
+    }
+}
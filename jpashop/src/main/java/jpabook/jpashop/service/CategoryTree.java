@@ -0,0 +1,96 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.CategoryNodeDto;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 (불변)
+ * 한 번 만든 뒤에는 바뀌지 않으므로 여러 스레드가 잠금 없이 함께 읽는다. 카테고리가 바뀌면 새로 만든다. (CategoryTreeCache)
+ */
+public class CategoryTree {
+
+    private final List<Node> roots;
+    private final Map<Long, Node> nodes;
+
+    private CategoryTree(List<Node> roots, Map<Long, Node> nodes) {
+        this.roots = roots;
+        this.nodes = nodes;
+    }
+
+    public static CategoryTree of(List<CategoryNodeDto> rows) {
+        Map<Long, List<CategoryNodeDto>> childRows = new HashMap<>();
+        List<CategoryNodeDto> rootRows = new ArrayList<>();
+        for (CategoryNodeDto row : rows) {
+            if (row.getParentId() == null) {
+                rootRows.add(row);
+            } else {
+                childRows.computeIfAbsent(row.getParentId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+
+        Map<Long, Node> nodes = new HashMap<>();
+        List<Node> roots = build(rootRows, childRows, nodes);
+        return new CategoryTree(roots, Collections.unmodifiableMap(nodes));
+    }
+
+    private static List<Node> build(List<CategoryNodeDto> rows, Map<Long, List<CategoryNodeDto>> childRows, Map<Long, Node> nodes) {
+        List<Node> result = new ArrayList<>(rows.size());
+        for (CategoryNodeDto row : rows) {
+            List<Node> children = build(childRows.getOrDefault(row.getId(), List.of()), childRows, nodes);
+            Node node = new Node(row.getId(), row.getName(), row.getPath(), children);
+            nodes.put(node.getId(), node);
+            result.add(node);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public List<Node> getRoots() {
+        return roots;
+    }
+
+    public Node find(Long categoryId) {
+        return nodes.get(categoryId);
+    }
+
+    /**
+     * 자신과 모든 하위 카테고리 id (없는 카테고리면 빈 목록)
+     */
+    public List<Long> subtreeIds(Long categoryId) {
+        Node root = nodes.get(categoryId);
+        if (root == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            ids.add(node.getId());
+            node.getChildren().forEach(stack::push);
+        }
+        return ids;
+    }
+
+    @Getter
+    public static class Node {
+        private final Long id;
+        private final String name;
+        private final String path;
+        private final List<Node> children;
+
+        Node(Long id, String name, String path, List<Node> children) {
+            this.id = id;
+            this.name = name;
+            this.path = path;
+            this.children = children;
+        }
+    }
+}
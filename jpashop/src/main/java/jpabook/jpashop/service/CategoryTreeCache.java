@@ -0,0 +1,85 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.CategoryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 카테고리 트리 캐시
+ * 처음 조회할 때 전체 카테고리를 한 번 읽어 불변 트리(CategoryTree)로 만들어 두고,
+ * 카테고리가 바뀐 트랜잭션이 커밋되면 버려서 다음 조회 때 다시 만든다.
+ *
+ * - 카테고리를 바꾼 트랜잭션 안에서 조회하면, 커밋 전 변경을 포함한 트리를 그 트랜잭션에서 읽고 캐시에는 넣지 않는다.
+ * - 서버 한 대에서만 정확하다. 캐시는 JVM마다 따로 있고 같은 서버에서 커밋된 변경으로만 버려지므로,
+ *   여러 서버로 운영하면 다른 서버에서 바꾼 카테고리는 그 서버의 캐시가 다시 만들어질 때까지 보이지 않는다.
+ */
+@Component
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate primaryTransaction;
+    private volatile CategoryTree tree;
+    private volatile long version;  // 캐시를 버릴 때마다 증가
+
+    public CategoryTreeCache(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        // readOnly로 조회하면 replica로 라우팅되어, 캐시를 버린 직후 복제 전의 트리를 다시 캐시할 수 있으므로 primary에서 읽는다.
+        // 다른 트랜잭션 안에서 호출되어도 커밋된 값만 읽도록 항상 새 트랜잭션으로 조회
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public CategoryTree get() {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return CategoryTree.of(categoryRepository.findAllNodes());  // 현재 트랜잭션에서 카테고리를 바꿨다.
+        }
+        CategoryTree current = tree;
+        if (current != null) {
+            return current;
+        }
+        long loadingVersion = version;
+        CategoryTree loaded = primaryTransaction.execute(status -> CategoryTree.of(categoryRepository.findAllNodes()));
+        synchronized (this) {
+            // 읽는 도중 캐시가 버려졌다면 이전 상태일 수 있으므로 저장하지 않는다.
+            if (version == loadingVersion) {
+                tree = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private synchronized void clear() {
+        version++;
+        tree = null;
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 캐시를 버린다.
+     * 끝날 때까지는 이 트랜잭션에서 카테고리를 바꿨다고 표시해 둔다. (get은 캐시 대신 현재 트랜잭션에서 읽는다.)
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;  // 이 트랜잭션에서 이미 등록했다.
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clear();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CategoryTreeCache.this);
+            }
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package jpabook.jpashop.service;
+
+import jakarta.annotation.PreDestroy;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 인기 상품 재고 장부 (jpashop.hot-stock.item-ids에 설정한 상품만 관리, 비어 있으면 사용하지 않음)
+ *
+ * 타임세일처럼 한 상품에 주문이 몰리면 모든 주문이 item 테이블의 같은 row를 UPDATE 하게 되어 row 락 대기가 길어진다.
+ * 설정한 상품은 가용 재고를 메모리에서 CAS로 예약하고, 차감량은 LongAdder에 모아 두었다가 주기적으로 한 번의 UPDATE로 DB에 반영한다.
+ *
+ * - 항상 DB 재고 = 가용 재고(available) + 아직 반영하지 않은 차감량(pending) 이 성립한다.
+ * - 재고 부족은 예약 시점에 바로 NotEnoughStockException으로 알 수 있다.
+ * - 시작 시 웹 서버가 요청을 받기 전에 DB 재고로 장부를 다시 만든다. 종료 시에는 남은 차감량을 반영하지만,
+ *   프로세스가 비정상 종료되면 마지막 반영 이후(flush-interval-ms 이내)의 차감량은 DB에 반영되지 않는다.
+ * - 서버 한 대에서만 사용할 수 있다. 장부는 JVM마다 따로 있고 applyStockDelta는 재고를 확인하지 않는 UPDATE이므로,
+ *   여러 서버가 같은 상품을 관리하면 각자 전체 재고를 예약해서 초과 판매된다.
+ */
+@Slf4j
+@Component
+public class HotStockLedger implements SmartInitializingSingleton {
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> hotItemIds;
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    public HotStockLedger(ItemRepository itemRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${jpashop.hot-stock.item-ids:}") List<Long> hotItemIds) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotItemIds = new HashSet<>(hotItemIds);
+    }
+
+    /**
+     * 웹 서버 시작(ApplicationReadyEvent)보다 먼저 장부를 만든다.
+     * 요청을 받는 중에 로딩하면 DB 경로로 처리된 주문이 장부에 빠지고, 이후 반영(applyStockDelta)에서 재고가 음수가 될 수 있다.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    /**
+     * DB 재고로 장부를 만든다.
+     */
+    public void load() {
+        if (hotItemIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                itemRepository.findStockQuantities(hotItemIds)
+                        .forEach((itemId, stockQuantity) -> counters.put(itemId, new StockCounter(stockQuantity))));
+        log.info("hot stock ledger loaded. items={}", counters.keySet());
+    }
+
+    public boolean isManaged(Long itemId) {
+        return counters.containsKey(itemId);
+    }
+
+    /**
+     * 재고 예약 (락 없이 CAS로 차감)
+     * 트랜잭션 안에서 호출하면, 트랜잭션이 롤백될 때 예약이 자동으로 취소된다.
+     */
+    public void reserve(Long itemId, int quantity) {
+        StockCounter counter = counters.get(itemId);
+        long current;
+        do {
+            current = counter.available.get();
+            if (current < quantity) {
+                throw new NotEnoughStockException("need more stock");
+            }
+        } while (!counter.available.compareAndSet(current, current - quantity));
+        counter.pending.add(quantity);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        // 이미 DB에 반영된 차감량이라면 pending이 음수가 되어 다음 반영 때 되돌아간다.
+                        counter.pending.add(-quantity);
+                        counter.available.addAndGet(quantity);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 엔티티를 통해 DB 재고가 직접 바뀐 경우 (주문 취소, 상품 수정) 커밋 후 가용 재고에 같은 만큼 반영한다.
+     */
+    public void adjustAfterCommit(Long itemId, int delta) {
+        StockCounter counter = counters.get(itemId);
+        if (counter == null || delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter.available.addAndGet(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.available.addAndGet(delta);
+            }
+        });
+    }
+
+    /**
+     * 모아 둔 차감량을 상품마다 UPDATE 한 번으로 반영 (write-behind)
+     * 반영에 실패하면 차감량을 다시 쌓아 두고 다음 주기에 재시도한다.
+     */
+    @Scheduled(fixedDelayString = "${jpashop.hot-stock.flush-interval-ms:200}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        counters.forEach((itemId, counter) -> {
+            long delta = counter.pending.sumThenReset();
+            if (delta != 0) {
+                deltas.put(itemId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    deltas.forEach(itemRepository::applyStockDelta));
+        } catch (RuntimeException e) {
+            log.warn("hot stock flush failed, will retry. deltas={}", deltas, e);
+            deltas.forEach((itemId, delta) -> counters.get(itemId).pending.add(delta));
+        }
+    }
+
+    public long getAvailable(Long itemId) {
+        return counters.get(itemId).available.get();
+    }
+
+    static class StockCounter {
+        private final AtomicLong available;  // 주문 가능한 재고
+        private final LongAdder pending = new LongAdder();  // DB에 아직 반영하지 않은 차감량
+
+        StockCounter(long available) {
+            this.available = new AtomicLong(available);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -15,10 +16,13 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final HotStockLedger hotStockLedger;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        catalogSnapshotService.refreshAfterCommit();
     }
 
     /**
@@ -27,18 +31,31 @@ public class ItemService {
     @Transactional
     public void updateItem(Long itemId, String name, int price, int stockQuantity) {
         Item findItem = itemRepository.findOne(itemId);
+        // 인기 상품은 수정으로 바뀐 재고만큼 커밋 후 재고 장부에도 반영
+        hotStockLedger.adjustAfterCommit(itemId, stockQuantity - findItem.getStockQuantity());
+
         // 변경 감지를 통해 업데이트 할 값들만 변경
         // 엔티티 내에서 change와 같은 메서드로 해야 유지보수가 편리하다.
         // 이 코드에서는 예시를 들었을 뿐이지, setter를 제거하는 것이 올바른 작성 방향
         findItem.setName(name);
         findItem.setPrice(price);
         findItem.setStockQuantity(stockQuantity);
+        catalogSnapshotService.refreshAfterCommit();
     }
 
     public List<Item> findItems() {
         return itemRepository.findAll();
     }
 
+    /**
+     * 목록 화면, API용 상품 목록 (DB 조회, 엔티티 생성 없이 스냅샷에서 조회)
+     * 스냅샷만 읽으므로 트랜잭션(커넥션)이 필요 없다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CatalogItem> findCatalogItems() {
+        return catalogSnapshotService.getSnapshot().items();
+    }
+
     public Item findOne(Long itemId) {
         return itemRepository.findOne(itemId);
     }
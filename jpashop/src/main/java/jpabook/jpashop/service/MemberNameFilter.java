@@ -0,0 +1,117 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 회원 이름 블룸 필터
+ * 가입할 때마다 DB에서 이름 중복을 확인하지 않도록, mightContain이 false면 "확실히 없는 이름"으로 보고 조회를 건너뛴다.
+ * true는 오탐(false positive)일 수 있으므로 DB로 한 번 더 확인해야 한다.
+ *
+ * - 시작 시 전체 회원 이름으로 채운다. 채우기 전에는 항상 true를 반환해서 DB로 확인하게 한다.
+ * - 이름은 추가만 하고 지우지 않는다. (이름 변경, 롤백된 가입은 오탐이 조금 늘어날 뿐 결과는 같다.)
+ * - 다른 서버에서 가입한 이름은 알 수 없으므로, 최종 중복 방지는 uk_member_name 유니크 제약조건이 담당한다.
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate primaryTransaction;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean loaded;
+
+    public MemberNameFilter(MemberRepository memberRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${jpashop.member-name-filter.expected-insertions:10000000}") long expectedInsertions,
+                            @Value("${jpashop.member-name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.memberRepository = memberRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        // readOnly로 조회하면 replica로 라우팅되어, 복제 전에 가입한 이름을 '확실히 없음'으로 판단할 수 있으므로 primary에서 읽는다.
+
+        // m = -n ln(p) / (ln 2)^2, k = m / n * ln 2
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        long[] count = new long[1];
+        primaryTransaction.executeWithoutResult(status -> memberRepository.forEachName(member -> {
+            put(member.getName());
+            count[0]++;
+        }));
+        loaded = true;
+        log.info("member name filter loaded. names={}, bits={}, hashes={}, {}ms",
+                count[0], bitCount, hashCount, System.currentTimeMillis() - started);
+    }
+
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long hash1 = hash(name);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;  // 홀수로 만들어 같은 위치가 반복되지 않게 한다.
+        for (int i = 0; i < hashCount; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            long mask = 1L << index;  // shift는 하위 6비트만 사용
+            bits.getAndAccumulate((int) (index >>> 6), mask, (word, bit) -> word | bit);
+        }
+    }
+
+    /**
+     * false : 확실히 없는 이름, true : 있을 수도 있는 이름 (DB 확인 필요)
+     */
+    public boolean mightContain(String name) {
+        if (name == null) {
+            return false;
+        }
+        if (!loaded) {
+            return true;
+        }
+        long hash1 = hash(name);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a 64bit로 누적한 뒤 비트를 섞는다. (String.hashCode는 32bit라 큰 필터에서 충돌이 많다.)
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,154 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 회원 이름 부분 검색용 trigram 역색인 (메모리)
+ * like '%x%'는 인덱스를 사용할 수 없어 주문 검색 때마다 orders x member 전체를 읽게 된다.
+ * 이름을 3글자 조각(trigram)으로 나눠 조각 -> 회원 id 목록을 만들어 두고, 검색어가 포함된 회원 id를 먼저 찾는다.
+ *
+ * - 후보 id는 현재 이름(names)에 검색어가 실제로 포함되는지 다시 확인하므로, 이름 변경 전의 조각이 남아 있어도 결과는 정확하다.
+ * - 3글자 미만 검색어, 시작 시 로딩 전에는 사용할 수 없다. (findMemberIds가 null을 반환하면 like 검색으로 처리)
+ * - 다른 서버에서 가입/수정한 회원은 알 수 없으므로 기본으로 꺼져 있다. 서버 한 대로 운영할 때만 jpashop.member-name-index.enabled를 켠다.
+ */
+@Slf4j
+@Component
+public class MemberNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean enabled;
+    private final int maxMatches;
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public MemberNameIndex(MemberRepository memberRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${jpashop.member-name-index.enabled:false}") boolean enabled,
+                           @Value("${jpashop.member-name-index.max-matches:1000}") int maxMatches) {
+        this.memberRepository = memberRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        // readOnly로 조회하면 replica로 라우팅되어, 복제 전에 가입한 회원이 색인에서 빠질 수 있으므로 primary에서 읽는다.
+        this.enabled = enabled;
+        this.maxMatches = maxMatches;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        primaryTransaction.executeWithoutResult(status ->
+                memberRepository.forEachName(member -> put(member.getId(), member.getName())));
+        loaded = true;
+        log.info("member name index loaded. members={}, grams={}, {}ms",
+                names.size(), postings.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * 가입, 이름 변경이 커밋된 후에 색인에 반영한다. (롤백된 이름으로 검색되지 않도록)
+     */
+    public void putAfterCommit(Long memberId, String name) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(memberId, name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(memberId, name);
+            }
+        });
+    }
+
+    /**
+     * 이름에 keyword가 포함된 회원 id
+     * 색인을 사용할 수 없거나 결과가 max-matches보다 많으면 null (IN 절이 너무 길어지므로 like 검색이 낫다.)
+     */
+    public Set<Long> findMemberIds(String keyword) {
+        if (!loaded || keyword.length() < GRAM) {
+            return null;
+        }
+
+        // 가장 짧은 목록만 훑고, 나머지 조각은 이름을 직접 확인하는 것으로 대신한다.
+        Postings smallest = null;
+        for (int i = 0; i + GRAM <= keyword.length(); i++) {
+            Postings candidate = postings.get(keyword.substring(i, i + GRAM));
+            if (candidate == null) {
+                return Set.of();
+            }
+            if (smallest == null || candidate.size() < smallest.size()) {
+                smallest = candidate;
+            }
+        }
+
+        int size = smallest.size();
+        long[] ids = smallest.ids;
+        Set<Long> memberIds = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            String name = names.get(ids[i]);
+            if (name != null && name.contains(keyword)) {
+                memberIds.add(ids[i]);
+                if (memberIds.size() > maxMatches) {
+                    return null;
+                }
+            }
+        }
+        return memberIds;
+    }
+
+    private void put(Long memberId, String name) {
+        if (name == null) {
+            return;
+        }
+        names.put(memberId, name);
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            postings.computeIfAbsent(name.substring(i, i + GRAM), gram -> new Postings()).add(memberId);
+        }
+    }
+
+    // 조각별 회원 id 목록 (Long 객체 대신 long 배열로 저장)
+    // 추가는 잠금 안에서, 읽기는 잠금 없이 한다. size를 먼저 읽으면 그 이후 읽은 배열에는 size개가 모두 들어 있다.
+    static class Postings {
+        private volatile long[] ids = new long[4];
+        private volatile int size;
+
+        synchronized void add(long id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;  // 같은 이름 안에서 조각이 반복되는 경우
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameDto;
 import jpabook.jpashop.repository.MemberRepository;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,6 +37,8 @@ public class MemberService {
     // 변경할 일이 없기 때문에 final로 설정,
     // 생성자를 만들었을 때 값을 세팅해주지 않으면 에러를 발생해서 컴파일 시점에서 놓치지 않을 수 있음
     private final MemberRepository memberRepository;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
 
     // [방법2] setter injection
 //    @Autowired
@@ -57,8 +61,11 @@ public class MemberService {
      */
     @Transactional  // 하위에 트랜잭션 애노테이션을 작성하면 readOnly = false 옵션으로 설정된다.
     public Long join(Member member) {
-        validateDuplicateMember(member);
+        validateDuplicateMember(member.getName());
+        memberNameFilter.put(member.getName());
         memberRepository.save(member);
+        flushUniqueName();
+        memberNameIndex.putAfterCommit(member.getId(), member.getName());
         return member.getId();
     }
 
@@ -67,14 +74,25 @@ public class MemberService {
      * WAS에 동시에 여러 개가 뜨게 된다면 (똑같은 이름이 동시에 DB Insert를 하게 되면) 동시 호출이 될 수 있음
      * 비즈니스 로직이 이렇게 되어 있다고 하더라도, 멀티 스레드를 고려하여 member 이름을 유니크 제약조건을 걸어주는 것을 권장
      */
-    private void validateDuplicateMember(Member member) {
-        // EXCEPTION
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        if (!findMembers.isEmpty()) {
+    private void validateDuplicateMember(String name) {
+        // 블룸 필터에 없는 이름은 DB를 조회하지 않는다. 있다고 하면 오탐일 수 있으므로 존재 여부만 DB로 확인
+        if (memberNameFilter.mightContain(name) && memberRepository.existsByName(name)) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
     }
 
+    /**
+     * 검사와 저장 사이에 다른 트랜잭션이 같은 이름으로 먼저 가입하면 uk_member_name 제약조건에 걸린다.
+     * 커밋 시점이 아니라 여기서 flush 해서 같은 예외(IllegalStateException)로 돌려준다.
+     */
+    private void flushUniqueName() {
+        try {
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+    }
+
     /**
      * 회원 전체 조회
      * @Transactional(readOnly = true) : JPA가 조회하는 곳에서 최적화
@@ -84,6 +102,13 @@ public class MemberService {
         return memberRepository.findAll();
     }
 
+    /**
+     * 회원 id, 이름 목록 조회 (주문 화면의 회원 선택 등)
+     */
+    public List<MemberNameDto> findMemberNames() {
+        return memberRepository.findAllNames();
+    }
+
     /**
      * 회원 단건 조회
      */
@@ -97,6 +122,12 @@ public class MemberService {
     @Transactional
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id);
+        if (name != null && !name.equals(member.getName())) {
+            validateDuplicateMember(name);
+            memberNameFilter.put(name);
+        }
         member.setName(name);
+        flushUniqueName();
+        memberNameIndex.putAfterCommit(id, name);
     }
 }
@@ -0,0 +1,25 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+
+    /**
+     * 주문 내보내기
+     * 커서를 읽는 동안 트랜잭션(커넥션)이 유지되어야 하므로, 스트리밍 응답을 쓰는 쪽에서 이 메서드 안에서 출력까지 끝낸다.
+     */
+    public long exportSimpleOrders(Long afterOrderId, Consumer<OrderSimpleQueryDto> writer) {
+        return orderSimpleQueryRepository.forEachOrderDto(afterOrderId, writer);
+    }
+}
@@ -0,0 +1,158 @@
+package jpabook.jpashop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 접수 큐 (group commit)
+ * 주문 요청은 크기가 정해진 큐에 넣고 바로 OrderTicket을 돌려준다.
+ * 작업 스레드가 큐에 쌓인 주문을 최대 max-batch-size개씩 꺼내 하나의 트랜잭션(OrderService.orderGroup)으로 처리하므로,
+ * 주문이 몰릴수록 커밋(로그 flush) 한 번에 더 많은 주문이 처리된다. 한가할 때는 한 건씩 바로 처리된다.
+ *
+ * - 큐가 가득 차면 submit이 IllegalStateException을 던진다. (호출하는 쪽에서 잠시 후 재시도)
+ * - 묶음 전체가 실패하면(DB 오류 등) 한 건씩 따로 다시 처리해서, 실패한 주문만 실패로 알린다.
+ * - 묶음 안의 재고 차감 row 락은 커밋까지 유지된다. 묶음이 클수록 커밋 횟수는 줄지만, 같은 상품을 주문하는 다른 묶음은 그만큼 오래 기다린다.
+ *   (인기 상품에 주문이 몰리면 max-batch-size를 줄이거나 HotStockLedger를 사용한다.) 락은 항상 상품 id 순서로 잡으므로 묶음끼리 교착 상태는 생기지 않는다.
+ * - track으로 등록한 티켓(API로 돌려준 티켓)만 findTicket으로 조회할 수 있고, 처리가 끝난 뒤 ticket-retention-ms 동안 보관한다.
+ */
+@Slf4j
+@Service
+public class OrderIntakeService {
+
+    private final OrderService orderService;
+    private final BlockingQueue<OrderTicket> queue;
+    private final Map<String, OrderTicket> tickets = new ConcurrentHashMap<>();
+    private final int workerCount;
+    private final int maxBatchSize;
+    private final long ticketRetentionMillis;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public OrderIntakeService(OrderService orderService,
+                              @Value("${jpashop.order-intake.queue-capacity:10000}") int queueCapacity,
+                              @Value("${jpashop.order-intake.workers:4}") int workerCount,
+                              @Value("${jpashop.order-intake.max-batch-size:100}") int maxBatchSize,
+                              @Value("${jpashop.order-intake.ticket-retention-ms:600000}") long ticketRetentionMillis) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.maxBatchSize = maxBatchSize;
+        this.ticketRetentionMillis = ticketRetentionMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "order-intake-" + i);
+            worker.setDaemon(true);  // stop()이 호출되지 않아도 JVM 종료를 막지 않는다.
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    public OrderTicket submit(OrderLine orderLine) {
+        if (!running) {
+            throw new IllegalStateException("주문 접수를 시작하지 않았거나 종료 중입니다.");
+        }
+        OrderTicket ticket = new OrderTicket(UUID.randomUUID().toString(), orderLine);
+        if (!queue.offer(ticket)) {
+            throw new IllegalStateException("주문 접수 대기열이 가득 찼습니다. 잠시 후 다시 시도해 주세요.");
+        }
+        return ticket;
+    }
+
+    /**
+     * 나중에 ticketId로 조회할 티켓을 등록한다. 등록하지 않은 티켓은 처리가 끝나면 바로 버려진다.
+     */
+    public void track(OrderTicket ticket) {
+        tickets.put(ticket.getTicketId(), ticket);
+    }
+
+    public OrderTicket findTicket(String ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    private void drain() {
+        List<OrderTicket> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                OrderTicket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);  // 기다리지 않고, 이미 쌓여 있는 만큼만 묶는다.
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 테스트에서 작업 스레드 없이 직접 호출
+    void process(List<OrderTicket> batch) {
+        try {
+            List<OrderOutcome> outcomes = orderService.orderGroup(batch.stream()
+                    .map(OrderTicket::getOrderLine)
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), outcomes.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).fail(e);
+                return;
+            }
+            log.warn("order group of {} failed, retrying one by one", batch.size(), e);
+            for (OrderTicket ticket : batch) {
+                process(List.of(ticket));
+            }
+        }
+    }
+
+    private void complete(OrderTicket ticket, OrderOutcome outcome) {
+        if (outcome.isSuccess()) {
+            ticket.complete(outcome.getOrderId());
+        } else {
+            ticket.fail(outcome.getFailure());
+        }
+    }
+
+    // 처리가 끝나고 보관 기간이 지난 티켓 정리
+    @Scheduled(fixedDelay = 60_000)
+    public void removeExpiredTickets() {
+        long expiredBefore = System.currentTimeMillis() - ticketRetentionMillis;
+        tickets.values().removeIf(ticket -> ticket.isDone() && ticket.getCompletedAtMillis() < expiredBefore);
+    }
+
+    /**
+     * 새 주문 접수를 멈추고, 큐에 남은 주문을 모두 처리한 뒤 종료한다.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        workers.clear();
+    }
+}
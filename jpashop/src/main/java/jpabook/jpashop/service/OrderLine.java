@@ -0,0 +1,20 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+/**
+ * 대량 주문 한 건 (회원, 상품, 수량)
+ */
+@Getter
+public class OrderLine {
+
+    private final Long memberId;
+    private final Long itemId;
+    private final int count;
+
+    public OrderLine(Long memberId, Long itemId, int count) {
+        this.memberId = memberId;
+        this.itemId = itemId;
+        this.count = count;
+    }
+}
@@ -0,0 +1,28 @@
+package jpabook.jpashop.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 주문 한 건의 처리 결과 (성공 시 orderId, 실패 시 failure)
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class OrderOutcome {
+
+    private final Long orderId;
+    private final RuntimeException failure;
+
+    public static OrderOutcome success(Long orderId) {
+        return new OrderOutcome(orderId, null);
+    }
+
+    public static OrderOutcome failure(RuntimeException failure) {
+        return new OrderOutcome(null, failure);
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
@@ -5,40 +5,106 @@ import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderPage;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class OrderService {
 
+    // 대량 주문 시 한 번에 조회 / flush 하는 주문 수 (hibernate.jdbc.batch_size의 배수로 설정)
+    private static final int PLACE_ORDERS_CHUNK_SIZE = 1000;
+    // 일괄 취소 시 한 번에 처리하는 주문 수 (IN 절 길이)
+    private static final int CANCEL_ORDERS_CHUNK_SIZE = 1000;
+
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final HotStockLedger hotStockLedger;
+    private final MemberNameIndex memberNameIndex;
 
     /**
      * 주문
      */
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
+        return createOrder(memberId, itemId, count);
+    }
+
+    /**
+     * 여러 주문을 하나의 트랜잭션으로 처리 (group commit, OrderIntakeService에서 사용)
+     * 재고 부족, 없는 회원/상품처럼 DB를 변경하기 전에 알 수 있는 실패는 해당 주문만 실패로 돌려주고 나머지는 커밋한다.
+     * 그 밖의 예외는 전체가 롤백된다.
+     * 재고 차감(조건부 UPDATE)의 row 락은 커밋까지 유지되므로, 묶음끼리 교착 상태가 되지 않도록 항상 상품 id 순서로 처리한다.
+     * 결과는 orderLines와 같은 순서로 돌려준다.
+     */
+    @Transactional
+    public List<OrderOutcome> orderGroup(List<OrderLine> orderLines) {
+        OrderOutcome[] outcomes = new OrderOutcome[orderLines.size()];
+        List<Integer> indexesByItem = IntStream.range(0, orderLines.size()).boxed()
+                .sorted(Comparator.comparing(i -> orderLines.get(i).getItemId()))
+                .collect(Collectors.toList());
+        for (int index : indexesByItem) {
+            OrderLine line = orderLines.get(index);
+            try {
+                outcomes[index] = OrderOutcome.success(createOrder(line.getMemberId(), line.getItemId(), line.getCount()));
+            } catch (NotEnoughStockException | IllegalArgumentException e) {
+                outcomes[index] = OrderOutcome.failure(e);
+            }
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    // 트랜잭션 안에서 호출
+    private Long createOrder(Long memberId, Long itemId, int count) {
         // 엔티티 조회
         Member member = memberRepository.findOne(memberId);
+        if (member == null) {
+            throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + memberId);
+        }
         Item item = itemRepository.findOne(itemId);
+        if (item == null) {
+            throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + itemId);
+        }
+
+        // 재고 차감 (동시 주문 시에도 초과 판매 없음)
+        if (hotStockLedger.isManaged(itemId)) {
+            hotStockLedger.reserve(itemId, count);  // 인기 상품은 메모리에서 예약, DB 반영은 주기적으로
+        } else {
+            if (!itemRepository.decreaseStock(itemId, count)) {  // 조건부 UPDATE
+                throw new NotEnoughStockException("need more stock");
+            }
+            itemRepository.refresh(item);  // 차감된 재고, 버전으로 다시 읽음
+        }
 
         // 배송정보 생성
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        // 주문상품 생성 (재고는 이미 차감됨)
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
 
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
@@ -49,6 +115,77 @@ public class OrderService {
         return order.getId();
     }
 
+    /**
+     * 대량 주문
+     * - 청크 단위로 회원, 상품을 IN 절로 한 번에 조회한다. (주문마다 회원, 상품을 조회하지 않음)
+     * - 재고는 청크 안에서 상품별로 합산해 조건부 UPDATE로 차감한다.
+     * - insert는 hibernate.jdbc.batch_size 단위로 묶여서 전송된다. (order_inserts, order_updates 옵션)
+     * - 청크마다 flush, clear 하여 영속성 컨텍스트가 커지지 않게 한다.
+     * - 전체가 하나의 트랜잭션이므로, 중간에 재고 부족 등 예외가 발생하면 모든 주문이 롤백된다.
+     * @return 생성된 주문 id (orderLines 순서와 같음)
+     */
+    @Transactional
+    public List<Long> placeOrders(List<OrderLine> orderLines) {
+        List<Long> orderIds = new ArrayList<>(orderLines.size());
+
+        for (int from = 0; from < orderLines.size(); from += PLACE_ORDERS_CHUNK_SIZE) {
+            List<OrderLine> chunk = orderLines.subList(from, Math.min(from + PLACE_ORDERS_CHUNK_SIZE, orderLines.size()));
+
+            Map<Long, Member> members = findMembers(chunk);
+            Map<Long, Item> items = findItems(chunk);
+            decreaseStocks(chunk);
+
+            for (OrderLine line : chunk) {
+                Member member = members.get(line.getMemberId());
+                if (member == null) {
+                    throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + line.getMemberId());
+                }
+                Item item = items.get(line.getItemId());
+                if (item == null) {
+                    throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + line.getItemId());
+                }
+
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+
+                OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                Order order = Order.createOrder(member, delivery, orderItem);
+
+                orderRepository.save(order);
+                orderIds.add(order.getId());
+            }
+
+            orderRepository.flushAndClear();
+        }
+
+        return orderIds;
+    }
+
+    private Map<Long, Member> findMembers(List<OrderLine> lines) {
+        Set<Long> memberIds = lines.stream().map(OrderLine::getMemberId).collect(Collectors.toSet());
+        return memberRepository.findAllByIds(memberIds).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+    }
+
+    // 청크 안에서 상품별 주문 수량을 합산해 상품마다 조건부 UPDATE 한 번으로 차감
+    private void decreaseStocks(List<OrderLine> lines) {
+        Map<Long, Integer> quantities = lines.stream()
+                .collect(Collectors.groupingBy(OrderLine::getItemId, Collectors.summingInt(OrderLine::getCount)));
+        quantities.forEach((itemId, quantity) -> {
+            if (hotStockLedger.isManaged(itemId)) {
+                hotStockLedger.reserve(itemId, quantity);
+            } else if (!itemRepository.decreaseStock(itemId, quantity)) {
+                throw new NotEnoughStockException("need more stock");
+            }
+        });
+    }
+
+    private Map<Long, Item> findItems(List<OrderLine> lines) {
+        Set<Long> itemIds = lines.stream().map(OrderLine::getItemId).collect(Collectors.toSet());
+        return itemRepository.findAllByIds(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
     /**
      * 주문 취소
      */
@@ -59,10 +196,66 @@ public class OrderService {
 
         // 주문 취소
         order.cancel();
+
+        // 인기 상품은 취소로 늘어난 재고를 커밋 후 장부에도 반영
+        for (OrderItem orderItem : order.getOrderItems()) {
+            hotStockLedger.adjustAfterCommit(orderItem.getItem().getId(), orderItem.getCount());
+        }
+    }
+
+    /**
+     * 일괄 취소 (운영 작업 등으로 많은 주문을 한 번에 취소)
+     * 주문마다 엔티티를 읽어 cancel() 하지 않고, 청크마다 다음 집합 연산만 실행한다.
+     * 1. 취소 가능한 주문 (주문 상태, 배송 완료 아님)을 골라 row 락
+     * 2. 상품별 주문 수량 합계 조회 (group by)
+     * 3. 재고를 상품별 합계만큼 되돌림 (UPDATE 한 번, 변경된 상품만 2차 캐시에서 제거)
+     * 4. 주문 상태를 CANCEL로 변경 (UPDATE 한 번)
+     * 벌크 연산 후에는 영속성 컨텍스트를 비운다. 전체가 하나의 트랜잭션이므로 중간에 실패하면 모두 롤백된다.
+     */
+    @Transactional
+    public BulkCancelResult cancelOrders(Collection<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        orderRepository.flushAndClear();
+
+        int canceled = 0;
+        for (int from = 0; from < ids.size(); from += CANCEL_ORDERS_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CANCEL_ORDERS_CHUNK_SIZE, ids.size()));
+
+            List<Long> cancelableIds = orderRepository.lockCancelableIds(chunk);
+            if (cancelableIds.isEmpty()) {
+                continue;
+            }
+            Map<Long, Long> counts = orderRepository.sumCountsByItem(cancelableIds);
+            itemRepository.restoreStocks(cancelableIds, counts.keySet());
+            canceled += orderRepository.markCanceled(cancelableIds);
+
+            // 인기 상품은 되돌린 재고를 커밋 후 장부에도 반영
+            counts.forEach((itemId, count) -> hotStockLedger.adjustAfterCommit(itemId, Math.toIntExact(count)));
+            orderRepository.flushAndClear();
+        }
+        return new BulkCancelResult(ids.size(), canceled);
+    }
+
+    /**
+     * 검색 조건에 맞는 주문 일괄 취소 (주문 상태 조건은 무시하고 ORDER 상태인 주문만 대상)
+     * 조건 없이 호출하면 모든 주문이 취소되므로 회원 이름 조건을 필수로 한다.
+     */
+    @Transactional
+    public BulkCancelResult cancelOrders(OrderSearch orderSearch) {
+        if (!StringUtils.hasText(orderSearch.getMemberName())) {
+            throw new IllegalArgumentException("일괄 취소할 주문의 회원 이름 조건이 필요합니다.");
+        }
+        Set<Long> memberIds = memberNameIndex.findMemberIds(orderSearch.getMemberName());
+        return cancelOrders(orderRepository.findOrderedIds(orderSearch, memberIds));
     }
 
-    // 검색
-    public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAllByCriteria(orderSearch);
+    // 검색 (pageToken : 이전 페이지 응답의 nextPageToken, 첫 페이지면 null)
+    // 회원 이름은 색인으로 회원 id를 먼저 찾고, 색인을 쓸 수 없으면 like 검색으로 처리
+    public OrderPage findOrders(OrderSearch orderSearch, String pageToken, int size) {
+        Set<Long> memberIds = null;
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            memberIds = memberNameIndex.findMemberIds(orderSearch.getMemberName());
+        }
+        return orderRepository.findPage(orderSearch, memberIds, OrderCursor.decode(pageToken), size);
     }
 }
@@ -0,0 +1,54 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 접수된 주문 (OrderIntakeService.submit)
+ * 처리가 끝나면 result가 주문 id로 완료되거나, 해당 주문의 예외로 실패한다.
+ */
+@Getter
+public class OrderTicket {
+
+    private final String ticketId;
+    private final OrderLine orderLine;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private volatile long completedAtMillis;
+
+    OrderTicket(String ticketId, OrderLine orderLine) {
+        this.ticketId = ticketId;
+        this.orderLine = orderLine;
+    }
+
+    void complete(Long orderId) {
+        completedAtMillis = System.currentTimeMillis();
+        result.complete(orderId);
+    }
+
+    void fail(RuntimeException failure) {
+        completedAtMillis = System.currentTimeMillis();
+        result.completeExceptionally(failure);
+    }
+
+    /**
+     * 처리가 끝날 때까지 기다렸다가 주문 id를 반환한다. 주문이 실패했다면 그 예외(NotEnoughStockException 등)를 그대로 던진다.
+     */
+    public Long await(long timeoutMillis) throws TimeoutException, InterruptedException {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+}
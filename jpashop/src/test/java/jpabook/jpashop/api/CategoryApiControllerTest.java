@@ -0,0 +1,87 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.repository.CategoryItemDto;
+import jpabook.jpashop.service.CategoryService;
+import jpabook.jpashop.support.CategoryFixture;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 카테고리 상품 페이지, 개수 (CategoryRepository의 native 쿼리 findItemPage, countItems, countItemsByCategory)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class CategoryApiControllerTest {
+
+    @Autowired CategoryApiController controller;
+    @Autowired CategoryService categoryService;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 하위트리_상품_페이지() throws Exception {
+        // given
+        Long rootId = categoryService.create("가전", null);
+        Long childId = categoryService.create("주방가전", rootId);
+        Long firstId = createItem("TV", rootId);
+        Long secondId = createItem("밥솥", childId);
+        Long thirdId = createItem("전자레인지", rootId, childId);  // 하위 트리의 두 카테고리에 모두 속한 상품
+
+        // when
+        CategoryApiController.CategoryItemPage first = controller.categoryItems(rootId, 0L, 2);
+        CategoryApiController.CategoryItemPage second = controller.categoryItems(rootId, first.getNextLastItemId(), 2);
+
+        // then
+        assertEquals(List.of(firstId, secondId), itemIds(first));
+        assertEquals("다음 페이지는 마지막 상품 id부터 이어져야 한다.", secondId, first.getNextLastItemId());
+        assertEquals("두 카테고리에 속한 상품도 한 번만 조회해야 한다.", List.of(thirdId), itemIds(second));
+        assertNull("마지막 페이지면 nextLastItemId가 없어야 한다.", second.getNextLastItemId());
+    }
+
+    @Test
+    public void 하위트리_상품_수_중복_제외() throws Exception {
+        // given
+        Long rootId = categoryService.create("스포츠", null);
+        Long childId = categoryService.create("구기", rootId);
+        createItem("운동화", rootId);
+        createItem("축구공", childId);
+        createItem("농구공", rootId, childId);
+
+        // when
+        long subtreeCount = controller.categoryItemCount(rootId).getData();
+        List<CategoryApiController.CategoryItemCountDto> counts = controller.categoryItemCounts().getData();
+
+        // then
+        assertEquals("두 카테고리에 속한 상품은 한 번만 세어야 한다.", 3, subtreeCount);
+        assertEquals(2, findCount(counts, rootId));
+        assertEquals(2, findCount(counts, childId));
+    }
+
+    private static List<Long> itemIds(CategoryApiController.CategoryItemPage page) {
+        return page.getData().stream()
+                .map(CategoryItemDto::getItemId)
+                .collect(Collectors.toList());
+    }
+
+    private static long findCount(List<CategoryApiController.CategoryItemCountDto> counts, Long categoryId) {
+        return counts.stream()
+                .filter(count -> count.getCategoryId().equals(categoryId))
+                .findFirst()
+                .orElseThrow()
+                .getItemCount();
+    }
+
+    private Long createItem(String name, Long... categoryIds) {
+        return CategoryFixture.createItem(em, name, categoryIds);
+    }
+}
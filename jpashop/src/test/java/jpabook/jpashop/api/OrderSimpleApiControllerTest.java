@@ -0,0 +1,49 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.monitoring.QueryCountInspector;
+import jpabook.jpashop.support.ExpectedQueries;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 주문 조회 API의 쿼리 수 회귀 테스트 (InitDb의 주문 데이터 사용)
+ * v2는 주문마다 회원, 배송을 지연 로딩하는 N+1 경로이므로, 같은 기준(쿼리 한 번)을 넘는지 확인해 검사가 실제로 N+1을 잡는지 본다.
+ */
+@SpringBootTest
+@Transactional
+class OrderSimpleApiControllerTest {
+
+    @Autowired OrderSimpleApiController controller;
+    @Autowired EntityManager em;
+
+    @Test
+    void 지연_로딩_조회는_기준_초과() {
+        em.getEntityManagerFactory().getCache().evictAll();  // 회원, 배송이 2차 캐시에 있으면 지연 로딩 SQL이 나가지 않는다.
+
+        QueryCountInspector.start(0);
+        boolean empty = controller.orderV2(null, 100).getData().isEmpty();
+        QueryCountInspector.Tracking tracking = QueryCountInspector.stop();
+
+        assertFalse(empty);
+        assertTrue(tracking.getStatements() > 1,
+                () -> "v2 should exceed @ExpectedQueries(max = 1) but ran " + tracking.getStatements() + " queries");
+    }
+
+    @Test
+    @ExpectedQueries(max = 1)
+    void 페치조인_조회는_쿼리_한번() {
+        assertFalse(controller.orderV3().isEmpty());
+    }
+
+    @Test
+    @ExpectedQueries(max = 1)
+    void DTO_직접_조회는_쿼리_한번() {
+        assertFalse(controller.orderV4().isEmpty());
+    }
+}
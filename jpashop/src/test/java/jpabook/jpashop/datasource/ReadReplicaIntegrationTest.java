@@ -0,0 +1,76 @@
+package jpabook.jpashop.datasource;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * jpashop.datasource.replica-urls를 설정했을 때 서비스 메서드가 어느 DB에서 실행되는지 확인한다.
+ * replica는 primary와 같은 스키마의 메모리 H2로, 복제는 하지 않는다. (replica에만 있는 행이 보이면 replica에서 읽은 것)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "jpashop.datasource.replica-urls=" + ReadReplicaIntegrationTest.REPLICA_URL)
+public class ReadReplicaIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicaintegration;DB_CLOSE_DELAY=-1";
+    private static final long REPLICA_ONLY_MEMBER_ID = 999_999_999L;
+
+    @Autowired MemberService memberService;
+    @Value("${spring.datasource.url}") String primaryUrl;
+    @Value("${spring.datasource.username}") String username;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @Before
+    public void setUp() {
+        primary = new JdbcTemplate(new DriverManagerDataSource(primaryUrl, username, ""));
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, username, ""));
+
+        // primary의 스키마(데이터 제외)를 replica에 그대로 만든다.
+        List<String> schema = primary.queryForList("script nodata", String.class);
+        replica.execute("drop all objects");
+        schema.forEach(replica::execute);
+        replica.update("insert into member (member_id, name) values (?, ?)", REPLICA_ONLY_MEMBER_ID, "replicaOnly");
+    }
+
+    @Test
+    public void 조회는_replica() throws Exception {
+        //when
+        List<Member> members = memberService.findMembers();
+
+        //then
+        assertTrue("readOnly 트랜잭션은 replica에서 읽어야 한다.",
+                members.stream().anyMatch(member -> member.getId() == REPLICA_ONLY_MEMBER_ID));
+    }
+
+    @Test
+    public void 가입은_primary() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("replicaJoin" + System.nanoTime());
+
+        //when
+        Long memberId = memberService.join(member);
+
+        //then
+        assertEquals("가입은 primary에 저장되어야 한다.", 1, countMember(primary, memberId));
+        assertEquals("replica에는 저장되지 않아야 한다.", 0, countMember(replica, memberId));
+    }
+
+    private static int countMember(JdbcTemplate jdbcTemplate, Long memberId) {
+        return jdbcTemplate.queryForObject("select count(*) from member where member_id = ?", Integer.class, memberId);
+    }
+}
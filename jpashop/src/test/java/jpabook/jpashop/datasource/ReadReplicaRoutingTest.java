@@ -0,0 +1,75 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * primary / replica를 서로 다른 메모리 H2로 띄워, 쿼리가 실행된 DB 이름으로 라우팅을 확인한다.
+ */
+public class ReadReplicaRoutingTest {
+
+    private HikariDataSource replica;
+    private ReadReplicaRouter router;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        replica = createPool("routingreplica");
+        router = new ReadReplicaRouter(createPool("routingprimary"), List.of(replica));
+        jdbcTemplate = new JdbcTemplate(router.getDataSource());
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.clear();
+        router.close();
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_replica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("ROUTINGREPLICA", currentDatabase());
+    }
+
+    @Test
+    public void 쓰기_트랜잭션은_primary() throws Exception {
+        assertEquals("ROUTINGPRIMARY", currentDatabase());
+    }
+
+    @Test
+    public void 쓰기_직후_읽기는_primary() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadYourWrites.requirePrimary();
+        assertEquals("read-your-writes 기간에는 읽기 전용 트랜잭션도 primary에서 읽어야 한다.", "ROUTINGPRIMARY", currentDatabase());
+    }
+
+    @Test
+    public void replica_장애시_primary() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        replica.close();
+
+        assertEquals("replica 커넥션을 얻지 못하면 primary에서 읽어야 한다.", "ROUTINGPRIMARY", currentDatabase());
+        assertEquals(0, router.getHealthyReplicaCount());
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select database()", String.class);
+    }
+
+    private static HikariDataSource createPool(String databaseName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPoolName(databaseName);
+        return dataSource;
+    }
+}
@@ -0,0 +1,99 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.repository.CategoryItemDto;
+import jpabook.jpashop.support.CategoryFixture;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class CategoryServiceTest {
+
+    @Autowired CategoryService categoryService;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 카테고리_생성_경로() throws Exception {
+        // when
+        Long rootId = categoryService.create("도서", null);
+        Long childId = categoryService.create("IT", rootId);
+
+        // then
+        assertEquals("/" + rootId + "/", findPath(rootId));
+        assertEquals("하위 카테고리 경로는 부모 경로로 시작해야 한다.", "/" + rootId + "/" + childId + "/", findPath(childId));
+        assertEquals("트리 캐시에도 경로가 있어야 한다.", findPath(childId), categoryService.getTree().find(childId).getPath());
+    }
+
+    @Test
+    public void 카테고리_이동() throws Exception {
+        // given
+        Long fromId = categoryService.create("이동 전 부모", null);
+        Long toId = categoryService.create("이동 후 부모", null);
+        Long categoryId = categoryService.create("이동할 카테고리", fromId);
+        Long grandChildId = categoryService.create("하위 카테고리", categoryId);
+
+        // when
+        categoryService.move(categoryId, toId);
+
+        // then
+        assertEquals("/" + toId + "/" + categoryId + "/", findPath(categoryId));
+        assertEquals("하위 트리의 경로도 함께 바뀌어야 한다.", "/" + toId + "/" + categoryId + "/" + grandChildId + "/", findPath(grandChildId));
+        assertEquals(List.of(categoryId, grandChildId), categoryService.getTree().subtreeIds(categoryId));
+        assertEquals("이동 전 부모의 하위 트리에서 빠져야 한다.", List.of(fromId), categoryService.getTree().subtreeIds(fromId));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 카테고리_이동_하위트리로_이동_예외() throws Exception {
+        // given
+        Long parentId = categoryService.create("부모", null);
+        Long childId = categoryService.create("자식", parentId);
+
+        // when
+        categoryService.move(parentId, childId);
+
+        // then
+        fail("자신의 하위 카테고리로 옮기면 예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void 하위트리_상품_조회() throws Exception {
+        // given
+        Long rootId = categoryService.create("음반", null);
+        Long childId = categoryService.create("재즈", rootId);
+        Long otherId = categoryService.create("영화", null);
+        Long rootItemId = createItem("음반 상품", rootId);
+        Long childItemId = createItem("재즈 상품", childId);
+        createItem("영화 상품", otherId);
+
+        // when
+        List<Long> itemIds = categoryService.findItemsInSubtree(rootId, 0L, 10).stream()
+                .map(CategoryItemDto::getItemId)
+                .collect(Collectors.toList());
+
+        // then
+        assertEquals("자신과 하위 카테고리의 상품만 조회해야 한다.", List.of(rootItemId, childItemId), itemIds);
+    }
+
+    // 벌크 UPDATE(movePaths) 결과를 읽도록 영속성 컨텍스트를 비우고 조회
+    private String findPath(Long categoryId) {
+        em.flush();
+        em.clear();
+        return em.find(Category.class, categoryId).getPath();
+    }
+
+    private Long createItem(String name, Long... categoryIds) {
+        return CategoryFixture.createItem(em, name, categoryIds);
+    }
+}
@@ -0,0 +1,109 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * DB 없이 장부 동작을 확인한다. (ItemRepository, 트랜잭션 매니저는 mock)
+ */
+public class HotStockLedgerTest {
+
+    private static final Long ITEM_ID = 1L;
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private HotStockLedger ledger;
+
+    @Before
+    public void setUp() {
+        ledger = new HotStockLedger(itemRepository, mock(PlatformTransactionManager.class), List.of(ITEM_ID));
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void 시작시_DB_재고로_장부_생성() throws Exception {
+        //given
+        when(itemRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(ITEM_ID, 10));
+
+        //when
+        ledger.load();
+
+        //then
+        assertTrue(ledger.isManaged(ITEM_ID));
+        assertFalse("설정하지 않은 상품은 관리하지 않는다.", ledger.isManaged(2L));
+        assertEquals(10, ledger.getAvailable(ITEM_ID));
+    }
+
+    @Test(expected = NotEnoughStockException.class)
+    public void 재고가_없으면_예약_예외() throws Exception {
+        //given
+        load(0);
+
+        //when
+        ledger.reserve(ITEM_ID, 1);
+
+        //then
+        fail("재고 부족 예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void 롤백시_예약_취소() throws Exception {
+        //given
+        load(10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        ledger.reserve(ITEM_ID, 3);
+        assertEquals(7, ledger.getAvailable(ITEM_ID));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        ledger.flush();
+
+        //then
+        assertEquals("롤백되면 가용 재고가 돌아와야 한다.", 10, ledger.getAvailable(ITEM_ID));
+        verify(itemRepository, never()).applyStockDelta(anyLong(), anyLong());  // 반영할 차감량(pending)도 남지 않는다.
+    }
+
+    @Test
+    public void 반영_실패시_다음_주기에_재시도() throws Exception {
+        //given
+        load(10);
+        ledger.reserve(ITEM_ID, 3);
+        doThrow(new IllegalStateException("db down")).doNothing()
+                .when(itemRepository).applyStockDelta(ITEM_ID, 3L);
+
+        //when
+        ledger.flush();
+        ledger.flush();
+        ledger.flush();
+
+        //then
+        verify(itemRepository, times(2)).applyStockDelta(ITEM_ID, 3L);  // 실패 1번 + 재시도 1번, 반영된 뒤에는 다시 보내지 않는다.
+        assertEquals(7, ledger.getAvailable(ITEM_ID));
+    }
+
+    private void load(int stockQuantity) {
+        when(itemRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(ITEM_ID, stockQuantity));
+        ledger.load();
+    }
+}
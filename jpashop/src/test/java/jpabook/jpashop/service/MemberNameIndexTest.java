@@ -0,0 +1,90 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberNameDto;
+import jpabook.jpashop.repository.MemberRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * DB 없이 색인 동작을 확인한다. (MemberRepository, 트랜잭션 매니저는 mock)
+ */
+public class MemberNameIndexTest {
+
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void 이름_부분_검색() throws Exception {
+        //given
+        MemberNameIndex index = load(1000,
+                new MemberNameDto(1L, "kimminsu"),
+                new MemberNameDto(2L, "leeminho"),
+                new MemberNameDto(3L, "parkjisu"));
+
+        //when then
+        assertEquals(Set.of(1L, 2L), index.findMemberIds("min"));
+        assertEquals(Set.of(1L), index.findMemberIds("kimmin"));
+        assertEquals("조각은 있어도 이어지지 않으면 제외해야 한다.", Set.of(), index.findMemberIds("minjisu"));
+        assertEquals(Set.of(), index.findMemberIds("choi"));
+        assertNull("3글자 미만은 like 검색으로 처리해야 한다.", index.findMemberIds("mi"));
+    }
+
+    @Test
+    public void 결과가_max_matches보다_많으면_like_검색() throws Exception {
+        //given
+        MemberNameIndex index = load(2,
+                new MemberNameDto(1L, "kim1"),
+                new MemberNameDto(2L, "kim2"),
+                new MemberNameDto(3L, "kim3"));
+
+        //when then
+        assertNull("max-matches를 넘으면 null을 반환해야 한다.", index.findMemberIds("kim"));
+        assertEquals(Set.of(1L), index.findMemberIds("kim1"));
+    }
+
+    @Test
+    public void 커밋_후에_색인_반영() throws Exception {
+        //given
+        MemberNameIndex index = load(1000, new MemberNameDto(1L, "kimminsu"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        index.putAfterCommit(2L, "choiminsu");
+
+        //then
+        assertEquals("커밋 전에는 검색되지 않아야 한다.", Set.of(1L), index.findMemberIds("minsu"));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(Set.of(1L, 2L), index.findMemberIds("minsu"));
+    }
+
+    private MemberNameIndex load(int maxMatches, MemberNameDto... members) {
+        doAnswer(invocation -> {
+            Consumer<MemberNameDto> action = invocation.getArgument(0);
+            List.of(members).forEach(action);
+            return null;
+        }).when(memberRepository).forEachName(any());
+
+        MemberNameIndex index = new MemberNameIndex(memberRepository, mock(PlatformTransactionManager.class), true, maxMatches);
+        index.load();
+        return index;
+    }
+}
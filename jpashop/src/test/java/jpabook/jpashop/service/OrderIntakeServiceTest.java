@@ -0,0 +1,124 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 작업 스레드 없이 큐, 묶음 처리를 확인한다. (OrderService는 mock)
+ */
+public class OrderIntakeServiceTest {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private OrderIntakeService orderIntakeService;
+
+    @After
+    public void tearDown() throws Exception {
+        if (orderIntakeService != null) {
+            orderIntakeService.stop();
+        }
+    }
+
+    @Test
+    public void 대기열_가득참_503() throws Exception {
+        //given
+        orderIntakeService = new OrderIntakeService(orderService, 1, 0, 100, 600_000);
+        orderIntakeService.start();  // 작업 스레드가 없으므로 대기열이 비워지지 않는다.
+        orderIntakeService.submit(new OrderLine(1L, 1L, 1));
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new OrderApiController(null, orderService, orderIntakeService))
+                .build();
+
+        //when then
+        mockMvc.perform(post("/api/v1/orders/intake")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\":1,\"itemId\":1,\"count\":1}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void 묶음_실패시_한건씩_재처리() throws Exception {
+        //given
+        orderIntakeService = new OrderIntakeService(orderService, 10, 0, 100, 600_000);
+        when(orderService.orderGroup(anyList())).thenAnswer(invocation -> {
+            List<OrderLine> lines = invocation.getArgument(0);
+            if (lines.size() > 1) {
+                throw new IllegalStateException("group failed");
+            }
+            OrderLine line = lines.get(0);
+            if (line.getItemId() == 2L) {
+                throw new IllegalStateException("item 2 failed");
+            }
+            return List.of(OrderOutcome.success(line.getItemId() * 100));
+        });
+        OrderTicket first = new OrderTicket("t1", new OrderLine(1L, 1L, 1));
+        OrderTicket second = new OrderTicket("t2", new OrderLine(1L, 2L, 1));
+        OrderTicket third = new OrderTicket("t3", new OrderLine(1L, 3L, 1));
+
+        //when
+        orderIntakeService.process(List.of(first, second, third));
+
+        //then
+        assertEquals("실패한 묶음은 한 건씩 다시 처리해야 한다.", 4, mockingDetails(orderService).getInvocations().size());
+        assertEquals(Long.valueOf(100), first.await(0));
+        assertEquals(Long.valueOf(300), third.await(0));
+        try {
+            second.await(0);
+            fail("실패한 주문의 티켓은 예외로 끝나야 한다.");
+        } catch (IllegalStateException e) {
+            assertEquals("item 2 failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void 재고부족은_해당_티켓으로_전달() throws Exception {
+        //given
+        orderIntakeService = new OrderIntakeService(orderService, 10, 0, 100, 600_000);
+        when(orderService.orderGroup(anyList())).thenReturn(List.of(
+                OrderOutcome.success(100L),
+                OrderOutcome.failure(new NotEnoughStockException("need more stock"))));
+        OrderTicket first = new OrderTicket("t1", new OrderLine(1L, 1L, 1));
+        OrderTicket second = new OrderTicket("t2", new OrderLine(1L, 2L, 100));
+
+        //when
+        orderIntakeService.process(List.of(first, second));
+
+        //then
+        verify(orderService, times(1)).orderGroup(anyList());
+        assertEquals(Long.valueOf(100), first.await(0));
+        try {
+            second.await(0);
+            fail("재고 부족 예외가 발생해야 한다.");
+        } catch (NotEnoughStockException e) {
+            assertEquals("need more stock", e.getMessage());
+        }
+    }
+
+    @Test
+    public void 등록한_티켓만_조회() throws Exception {
+        //given
+        orderIntakeService = new OrderIntakeService(orderService, 10, 0, 100, 600_000);
+        orderIntakeService.start();
+
+        //when
+        OrderTicket untracked = orderIntakeService.submit(new OrderLine(1L, 1L, 1));
+        OrderTicket tracked = orderIntakeService.submit(new OrderLine(1L, 1L, 1));
+        orderIntakeService.track(tracked);
+
+        //then
+        assertNull("등록하지 않은 티켓은 보관하지 않는다.", orderIntakeService.findTicket(untracked.getTicketId()));
+        assertSame(tracked, orderIntakeService.findTicket(tracked.getTicketId()));
+    }
+}
@@ -0,0 +1,112 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 동시 주문 테스트
+ * 여러 스레드가 각자의 트랜잭션으로 커밋해야 하므로 @Transactional을 붙이지 않고, 만든 데이터는 끝난 뒤 직접 지운다.
+ * 처리량은 ConcurrentOrderBenchmark(src/jmh)로 측정한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderServiceConcurrencyTest {
+
+    private static final int THREAD_COUNT = 16;
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private Long memberId;
+    private Long itemId;
+
+    @After
+    public void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (memberId != null) {
+                em.createQuery("select o from Order o where o.member.id = :memberId", Order.class)
+                        .setParameter("memberId", memberId)
+                        .getResultList()
+                        .forEach(em::remove);  // 주문상품, 배송도 함께 삭제 (cascade)
+                em.remove(em.find(Member.class, memberId));
+            }
+            if (itemId != null) {
+                em.remove(em.find(Item.class, itemId));
+            }
+        });
+    }
+
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+        // given
+        int stockQuantity = 100;
+        int orderAttempts = 400;
+
+        Member member = new Member();
+        member.setName("동시주문회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("인기 상품");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        itemId = book.getId();
+
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger notEnoughStock = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < orderAttempts; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.order(memberId, itemId, 1);
+                    success.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    notEnoughStock.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);  // 그 외 예외가 발생하면 테스트 실패
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals("재고 수량만큼만 주문이 성공해야 한다.", stockQuantity, success.get());
+        assertEquals("나머지 주문은 재고 부족으로 실패해야 한다.", orderAttempts - stockQuantity, notEnoughStock.get());
+        assertEquals("재고가 음수가 되면 안 된다.", 0, itemService.findOne(itemId).getStockQuantity());
+    }
+
+}
@@ -2,12 +2,15 @@ package jpabook.jpashop.service;
 
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.OrderPage;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +18,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
@@ -76,6 +81,132 @@ public class OrderServiceTest {
         assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야 한다.", 10, book.getStockQuantity());
     }
 
+    @Test
+    public void 일괄취소() throws Exception {
+        // given
+        Member member = createMember("kim");
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 2);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 3);
+        Long completedOrderId = orderService.order(member.getId(), book.getId(), 4);
+        orderRepository.findOne(completedOrderId).getDelivery().setStatus(DeliveryStatus.COMP);
+
+        // when
+        BulkCancelResult result = orderService.cancelOrders(List.of(orderId1, orderId2, completedOrderId));
+
+        // then
+        assertEquals("배송 완료된 주문은 취소하지 않는다.", 2, result.getCanceled());
+        assertEquals(1, result.getSkipped());
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId1).getStatus());
+        assertEquals(OrderStatus.ORDER, orderRepository.findOne(completedOrderId).getStatus());
+        assertEquals("취소된 주문 수량의 합만큼 재고가 증가해야 한다.", 6, em.find(Book.class, book.getId()).getStockQuantity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 일괄취소_조건없음_예외() throws Exception {
+        // given
+        Member member = createMember("kim");
+        Book book = createBook("시골 JPA", 10000, 10);
+        orderService.order(member.getId(), book.getId(), 2);
+
+        // when
+        orderService.cancelOrders(new OrderSearch());
+
+        // then
+        fail("조건 없는 일괄 취소는 모든 주문을 취소하므로 예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void 대량주문() throws Exception {
+        // given
+        Member member1 = createMember("회원1");
+        Member member2 = createMember("회원2");
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        // when
+        List<Long> orderIds = orderService.placeOrders(List.of(
+                new OrderLine(member1.getId(), book.getId(), 2),
+                new OrderLine(member2.getId(), book.getId(), 3)));
+
+        // then
+        assertEquals("요청한 주문 수만큼 주문이 생성되어야 한다.", 2, orderIds.size());
+        Order getOrder = orderRepository.findOne(orderIds.get(1));
+        assertEquals("주문 순서대로 id가 반환되어야 한다.", member2.getId(), getOrder.getMember().getId());
+        assertEquals("주문 수량의 합만큼 재고가 줄어야 한다", 5, em.find(Book.class, book.getId()).getStockQuantity());
+    }
+
+    @Test(expected = NotEnoughStockException.class)
+    public void 대량주문_재고수량초과() throws Exception {
+        // given
+        Member member = createMember("회원1");
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        // when
+        orderService.placeOrders(List.of(
+                new OrderLine(member.getId(), book.getId(), 6),
+                new OrderLine(member.getId(), book.getId(), 5)));
+
+        // then
+        fail("재고 수량 부족 예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void 묶음주문_일부실패() throws Exception {
+        // given
+        Member member = createMember("회원1");
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        // when
+        List<OrderOutcome> outcomes = orderService.orderGroup(List.of(
+                new OrderLine(member.getId(), book.getId(), 6),
+                new OrderLine(member.getId(), book.getId(), 5),  // 재고 부족
+                new OrderLine(member.getId(), book.getId(), 4)));
+
+        // then
+        assertTrue(outcomes.get(0).isSuccess());
+        assertTrue("재고가 부족한 주문만 실패해야 한다.", outcomes.get(1).getFailure() instanceof NotEnoughStockException);
+        assertTrue(outcomes.get(2).isSuccess());
+        assertEquals("성공한 주문 수량만큼 재고가 줄어야 한다", 0, em.find(Book.class, book.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 묶음주문_결과는_요청순서() throws Exception {
+        // given
+        Member member = createMember("회원1");
+        Book first = createBook("시골 JPA", 10000, 10);
+        Book second = createBook("자바 ORM", 20000, 1);
+
+        // when (상품 id 순서로 처리되지만 결과는 요청 순서대로)
+        List<OrderOutcome> outcomes = orderService.orderGroup(List.of(
+                new OrderLine(member.getId(), second.getId(), 2),  // 재고 부족
+                new OrderLine(member.getId(), first.getId(), 3)));
+
+        // then
+        assertTrue(outcomes.get(0).getFailure() instanceof NotEnoughStockException);
+        assertTrue(outcomes.get(1).isSuccess());
+        assertEquals(first.getId(), em.find(Order.class, outcomes.get(1).getOrderId()).getOrderItems().get(0).getItem().getId());
+    }
+
+    @Test
+    public void 주문목록_페이지() throws Exception {
+        // given
+        Member member = createMember("회원1");
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 1);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 1);
+        Long orderId3 = orderService.order(member.getId(), book.getId(), 1);
+
+        // when
+        OrderPage first = orderService.findOrders(new OrderSearch(), null, 2);
+        OrderPage second = orderService.findOrders(new OrderSearch(), first.getNextPageToken(), 2);
+
+        // then
+        assertEquals("최신 주문부터 조회해야 한다.", orderId3, first.getOrders().get(0).getId());
+        assertEquals(orderId2, first.getOrders().get(1).getId());
+        assertTrue("다음 페이지가 있어야 한다.", first.hasNext());
+        assertEquals("다음 페이지는 이전 페이지 마지막 주문 다음부터 조회해야 한다.", orderId1, second.getOrders().get(0).getId());
+    }
+
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
         book.setName(name);
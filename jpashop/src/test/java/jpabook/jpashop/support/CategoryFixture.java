@@ -0,0 +1,31 @@
+package jpabook.jpashop.support;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+
+/**
+ * 카테고리 테스트 데이터 (CategoryServiceTest, CategoryApiControllerTest)
+ */
+public final class CategoryFixture {
+
+    private CategoryFixture() {
+    }
+
+    /**
+     * 상품을 만들어 카테고리에 넣는다. (category_item)
+     * 상품 조회는 native 쿼리이므로 바로 읽을 수 있도록 flush 한다.
+     */
+    public static Long createItem(EntityManager em, String name, Long... categoryIds) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        for (Long categoryId : categoryIds) {
+            em.find(Category.class, categoryId).getItems().add(book);
+        }
+        em.flush();
+        return book.getId();
+    }
+}
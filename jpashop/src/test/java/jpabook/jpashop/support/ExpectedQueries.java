@@ -0,0 +1,20 @@
+package jpabook.jpashop.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드 본문에서 하이버네이트가 실행하는 SQL 수가 max를 넘으면 실패한다. (JUnit 5)
+ * 준비 데이터는 @BeforeEach에서 flush 해 두어야 insert가 함께 세어지지 않는다.
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryCountExtension.class)
+public @interface ExpectedQueries {
+
+    int max();
+}
@@ -0,0 +1,28 @@
+package jpabook.jpashop.support;
+
+import jpabook.jpashop.monitoring.QueryCountInspector;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCountInspector.start(0);
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryCountInspector.Tracking tracking = QueryCountInspector.stop();
+        int max = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), ExpectedQueries.class)
+                .orElseThrow()
+                .max();
+        assertTrue(tracking.getStatements() <= max,
+                () -> "expected at most " + max + " queries but was " + tracking.getStatements()
+                        + " (same select repeated up to " + tracking.getMaxRepeatedSelects() + " times)");
+    }
+}